@@ -19,10 +19,14 @@ export const SAVE_SETTINGS = gql`
     }
 `;
 
-export const GET_LOG_TAIL = gql`
-    query {
+export const GET_LOG_TAIL_SINCE = gql`
+    query TomcatLogTailSince($after: String) {
         tomcatLog {
-            tail(lines: 200)
+            tailSince(after: $after, lines: 200) {
+                lines
+                cursor
+                reset
+            }
         }
     }
 `;
@@ -1,8 +1,12 @@
-import React, {useEffect, useMemo, useRef, useState} from 'react';
-import {useQuery} from '@apollo/client';
+import React, {useEffect, useRef, useState} from 'react';
+import {useApolloClient} from '@apollo/client';
 import {useTranslation} from 'react-i18next';
 import styles from './TomcatLogProvider.scss';
-import {GET_LOG_TAIL} from './TomcatLogProvider.gql';
+import {GET_LOG_TAIL_SINCE} from './TomcatLogProvider.gql';
+
+const POLL_INTERVAL = 2000;
+// Keeps the DOM bounded when the viewer stays open for hours
+const MAX_DISPLAYED_LINES = 5000;
 
 export const TomcatLogViewer = () => {
     const {t} = useTranslation('tomcat-log-provider');
@@ -14,11 +18,43 @@ export const TomcatLogViewer = () => {
         document.title = `${t('label.logViewer')} — Jahia Administration`;
     }, [t]);
 
-    const {data: tailData} = useQuery(GET_LOG_TAIL, {
-        fetchPolicy: 'network-only',
-        pollInterval: 2000
-    });
-    const logLines = useMemo(() => tailData?.tomcatLog?.tail ?? [], [tailData]);
+    const client = useApolloClient();
+    const [logLines, setLogLines] = useState([]);
+
+    // Each poll sends the cursor of the previous one, so the server only reads the bytes appended since
+    useEffect(() => {
+        let cursor = null;
+        let cancelled = false;
+        let timer;
+        const poll = () => {
+            client.query({query: GET_LOG_TAIL_SINCE, variables: {after: cursor}, fetchPolicy: 'no-cache'})
+                .then(({data}) => {
+                    const chunk = data?.tomcatLog?.tailSince;
+                    if (cancelled || !chunk) {
+                        return;
+                    }
+                    cursor = chunk.cursor;
+                    if (chunk.reset) {
+                        setLogLines(chunk.lines);
+                    } else if (chunk.lines.length > 0) {
+                        setLogLines(previous => previous.concat(chunk.lines).slice(-MAX_DISPLAYED_LINES));
+                    }
+                })
+                .catch(() => {
+                    // Keep polling; the next successful call resumes from the last known cursor
+                })
+                .finally(() => {
+                    if (!cancelled) {
+                        timer = setTimeout(poll, POLL_INTERVAL);
+                    }
+                });
+        };
+        poll();
+        return () => {
+            cancelled = true;
+            clearTimeout(timer);
+        };
+    }, [client]);
 
     useEffect(() => {
         if (autoScroll && logEndRef.current) {
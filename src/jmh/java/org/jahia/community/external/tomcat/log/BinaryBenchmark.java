@@ -0,0 +1,85 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.apache.commons.vfs2.FileContent;
+import org.apache.commons.vfs2.VFS;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.jcr.RepositoryException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ranged reads of {@link TomcatLogBinaryImpl} at random offsets of log files of 1 MB to 4 GB, as
+ * the document manager issues them, compared with reaching the same offset through the stream.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BinaryBenchmark {
+
+    private static final int READ_BYTES = 64 * 1024;
+
+    @Param({"1", "64", "1024", "4096"})
+    public int megabytes;
+
+    private FileContent content;
+    private TomcatLogBinaryImpl binary;
+    private long size;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, RepositoryException {
+        final Path file = LogFixtures.jahiaLog(megabytes).resolve("logs").resolve("jahia.log");
+        content = VFS.getManager().resolveFile(file.toUri().toString()).getContent();
+        binary = new TomcatLogBinaryImpl(content);
+        size = binary.getSize();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        binary.dispose();
+    }
+
+    @Benchmark
+    public int read(Buffer buffer) throws IOException, RepositoryException {
+        return binary.read(buffer.bytes, ThreadLocalRandom.current().nextLong(Math.max(1, size - READ_BYTES)));
+    }
+
+    /**
+     * What {@link #read(Buffer)} costs without a file channel: the stream is skipped up to the offset.
+     */
+    @Benchmark
+    public int readThroughStream(Buffer buffer) throws IOException, RepositoryException {
+        final long position = ThreadLocalRandom.current().nextLong(Math.max(1, size - READ_BYTES));
+        try (InputStream stream = binary.getStream()) {
+            long remaining = position;
+            long skipped;
+            while (remaining > 0 && (skipped = stream.skip(remaining)) > 0) {
+                remaining -= skipped;
+            }
+            return stream.read(buffer.bytes);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Buffer {
+        private final byte[] bytes = new byte[READ_BYTES];
+    }
+}
@@ -0,0 +1,112 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.jahia.modules.external.ExternalData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.jcr.RepositoryException;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JCR-facing calls of {@link TomcatLogDataSource} on log directories of 10 to 50k files: listings
+ * served from the directory cache, the same listings right after mounting, and single-file lookups
+ * including the canonical-path checks of {@link TomcatLogDataSource#getFile(String)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataSourceBenchmark {
+
+    @Param({"10", "1000", "50000"})
+    public int files;
+
+    private String previousCatalinaBase;
+    private TomcatLogDataSource dataSource;
+    private String filePath;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, RepositoryException {
+        previousCatalinaBase = LogFixtures.setCatalinaBase(LogFixtures.directory(files));
+        dataSource = new TomcatLogDataSource();
+        dataSource.setRoot();
+        // A file in the middle of the listing
+        filePath = "/" + dataSource.getChildren("/").get(files / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.stop();
+        LogFixtures.restoreCatalinaBase(previousCatalinaBase);
+    }
+
+    @Benchmark
+    public List<ExternalData> getChildrenNodes() throws RepositoryException {
+        return dataSource.getChildrenNodes("/");
+    }
+
+    @Benchmark
+    public List<String> getChildren() throws RepositoryException {
+        return dataSource.getChildren("/");
+    }
+
+    @Benchmark
+    public FileObject getFile() throws FileSystemException {
+        return dataSource.getFile(filePath);
+    }
+
+    @Benchmark
+    public ExternalData getItemByPath() throws RepositoryException {
+        return dataSource.getItemByPath(filePath);
+    }
+
+    @Benchmark
+    public boolean itemExists() {
+        return dataSource.itemExists(filePath);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public List<ExternalData> getChildrenNodesAfterMount(ColdDataSource cold) throws RepositoryException {
+        return cold.dataSource.getChildrenNodes("/");
+    }
+
+    /**
+     * A data source mounted right before each call, so that nothing is cached yet.
+     */
+    @State(Scope.Thread)
+    public static class ColdDataSource {
+
+        private TomcatLogDataSource dataSource;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            dataSource = new TomcatLogDataSource();
+            dataSource.setRoot();
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            dataSource.stop();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.jahia.community.external.tomcat.log;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Generated {@code catalina.base} directories for the benchmarks.
+ *
+ * <p>Fixtures are written once under {@code ${java.io.tmpdir}/tomcat-log-provider-jmh} and reused by
+ * later forks and runs: generating a multi-gigabyte log takes far longer than benchmarking it.
+ * Delete the directory to generate them again.
+ */
+final class LogFixtures {
+
+    private static final String CATALINA_BASE = "catalina.base";
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss,SSS");
+    private static final LocalDateTime START = LocalDateTime.of(2026, 10, 1, 0, 0);
+    private static final String COMPLETE_MARKER = ".complete";
+    private static final int WRITE_BUFFER_BYTES = 1024 * 1024;
+
+    private LogFixtures() {
+        throw new AssertionError();
+    }
+
+    /**
+     * @param files the number of files in the log directory
+     * @return a {@code catalina.base} whose {@code logs} directory holds {@code files} small access
+     * logs, named as Tomcat rotates them
+     */
+    static Path directory(int files) throws IOException {
+        final Path base = getFixturesDirectory().resolve("files-" + files);
+        if (Files.exists(base.resolve(COMPLETE_MARKER))) {
+            return base;
+        }
+        final Path logs = Files.createDirectories(base.resolve("logs"));
+        final byte[] content = "127.0.0.1 - - [01/Oct/2026:00:00:00 +0000] \"GET /cms/render/live/en/sites/digitall/home.html HTTP/1.1\" 200 5120\n"
+                .getBytes(StandardCharsets.US_ASCII);
+        final LocalDate first = START.toLocalDate();
+        for (int i = 0; i < files; i++) {
+            // Several files a day, as with size-based rotation, so that any count gets unique names
+            Files.write(logs.resolve("localhost_access_log." + first.plusDays(i / 24) + '.' + (i % 24) + ".txt"), content);
+        }
+        Files.createFile(base.resolve(COMPLETE_MARKER));
+        return base;
+    }
+
+    /**
+     * @param megabytes the size of the log file
+     * @return a {@code catalina.base} whose {@code logs/jahia.log} is a Jahia log of about
+     * {@code megabytes} MB, with a warning every 10 entries and an error with a stack trace every 100
+     */
+    static Path jahiaLog(int megabytes) throws IOException {
+        final Path base = getFixturesDirectory().resolve("jahia-" + megabytes + "mb");
+        if (Files.exists(base.resolve(COMPLETE_MARKER))) {
+            return base;
+        }
+        final Path logs = Files.createDirectories(base.resolve("logs"));
+        final Path partial = logs.resolve("jahia.log.partial");
+        final long size = megabytes * 1024L * 1024L;
+        long written = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial), WRITE_BUFFER_BYTES)) {
+            final StringBuilder entry = new StringBuilder(2048);
+            for (long i = 0; written < size; i++) {
+                entry.setLength(0);
+                // 50 ms between entries: a 4 GB file spans about three weeks
+                TIMESTAMP.formatTo(START.plusNanos(i * 50_000_000L), entry);
+                if (i % 100 == 0) {
+                    entry.append(": ERROR [http-nio-8080-exec-").append(i % 40).append("] - Cannot render node /sites/digitall/home/page-")
+                            .append(i).append('\n').append("javax.jcr.RepositoryException: Unable to render\n");
+                    for (int frame = 0; frame < 20; frame++) {
+                        entry.append("\tat org.jahia.services.render.Frame").append(frame).append(".render(Frame.java:").append(frame + 10).append(")\n");
+                    }
+                } else {
+                    entry.append(i % 10 == 0 ? ": WARN  [" : ": INFO  [").append("http-nio-8080-exec-").append(i % 40)
+                            .append("] - Rendered /sites/digitall/home/page-").append(i).append(".html in ").append(i % 997).append(" ms\n");
+                }
+                final byte[] bytes = entry.toString().getBytes(StandardCharsets.US_ASCII);
+                out.write(bytes);
+                written += bytes.length;
+            }
+        }
+        Files.move(partial, logs.resolve("jahia.log"), StandardCopyOption.REPLACE_EXISTING);
+        Files.createFile(base.resolve(COMPLETE_MARKER));
+        return base;
+    }
+
+    /**
+     * @return the previous value of {@code catalina.base}, to pass to {@link #restoreCatalinaBase(String)}
+     */
+    static String setCatalinaBase(Path catalinaBase) {
+        return System.setProperty(CATALINA_BASE, catalinaBase.toString());
+    }
+
+    static void restoreCatalinaBase(String previous) {
+        if (previous == null) {
+            System.clearProperty(CATALINA_BASE);
+        } else {
+            System.setProperty(CATALINA_BASE, previous);
+        }
+    }
+
+    private static Path getFixturesDirectory() throws IOException {
+        return Files.createDirectories(Paths.get(System.getProperty("java.io.tmpdir"), "tomcat-log-provider-jmh"));
+    }
+}
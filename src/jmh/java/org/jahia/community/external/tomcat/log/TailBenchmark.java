@@ -0,0 +1,80 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.jahia.community.external.tomcat.log.graphql.TomcatLogProviderQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The GraphQL queries reading the end of {@code jahia.log}, on files of 1 MB to 4 GB: the
+ * {@code tail} query, the cursor-based tail behind {@code tailSince}, parsed entries filtered by
+ * level, and level histograms once their counts are cached.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TailBenchmark {
+
+    @Param({"1", "64", "1024", "4096"})
+    public int megabytes;
+
+    private String previousCatalinaBase;
+    private Path file;
+    private TomcatLogProviderQuery query;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final Path catalinaBase = LogFixtures.jahiaLog(megabytes);
+        previousCatalinaBase = LogFixtures.setCatalinaBase(catalinaBase);
+        file = catalinaBase.resolve("logs").resolve("jahia.log");
+        query = new TomcatLogProviderQuery();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        LogFixtures.restoreCatalinaBase(previousCatalinaBase);
+    }
+
+    @Benchmark
+    public List<String> tail() {
+        return query.logTail(200);
+    }
+
+    @Benchmark
+    public TomcatLogProviderQuery.GqlTailChunk tailSince() {
+        return query.logTailSince(null, 200);
+    }
+
+    @Benchmark
+    public LogTailer.Chunk logTailer() throws IOException {
+        return LogTailer.tail(file, 200);
+    }
+
+    @Benchmark
+    public List<TomcatLogProviderQuery.GqlLogEntry> errorEntries() {
+        return query.entries(null, 200, "ERROR");
+    }
+
+    @Benchmark
+    public TomcatLogProviderQuery.GqlHistogram hourlyHistogram() {
+        return query.histogram(null, null, null, 60);
+    }
+}
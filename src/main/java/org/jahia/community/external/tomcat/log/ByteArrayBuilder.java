@@ -0,0 +1,42 @@
+package org.jahia.community.external.tomcat.log;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer holding one line while it is assembled from consecutive reads.
+ */
+final class ByteArrayBuilder {
+
+    private byte[] bytes = new byte[256];
+    private int length;
+
+    void append(byte[] source, int from, int to) {
+        final int added = to - from;
+        if (length + added > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + added));
+        }
+        System.arraycopy(source, from, bytes, length, added);
+        length += added;
+    }
+
+    /**
+     * @return the backing array, valid up to {@link #length()} until the next append
+     */
+    byte[] array() {
+        return bytes;
+    }
+
+    int length() {
+        return length;
+    }
+
+    void reset() {
+        length = 0;
+    }
+
+    String toLine() {
+        final int end = length > 0 && bytes[length - 1] == '\r' ? length - 1 : length;
+        return new String(bytes, 0, end, StandardCharsets.UTF_8);
+    }
+}
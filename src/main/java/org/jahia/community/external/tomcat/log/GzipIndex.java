@@ -0,0 +1,524 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Random access index of a gzip file.
+ *
+ * <p>A deflate stream can only be resumed mid-way from the exact bit where a block starts plus the
+ * 32 KB window before it, which {@code java.util.zip} cannot do. So on first access the file is
+ * inflated once and re-compressed into chunks of {@link #CHUNK_BYTES} that each inflate on their
+ * own; reading at any offset then inflates a single chunk. The chunks and their offsets are stored
+ * in a cache directory, keyed by the identity, size and modification time of the gzip file, so the
+ * work survives restarts. At most {@link #MAX_CACHED_INDEXES} indexes are kept in memory, and at
+ * most {@link #MAX_CACHE_DIRECTORY_BYTES} on disk: the least recently used indexes go first, and
+ * those of files that no longer exist are removed whenever an index is built.
+ *
+ * <p>Only readers that jump around an archive need an index: those that go through it from start
+ * to end inflate it as they read, through a {@link GzipStreamChannel}.
+ */
+final class GzipIndex {
+
+    static final int CHUNK_BYTES = 1024 * 1024;
+    static final int MAX_CACHED_INDEXES = 32;
+    static final long MAX_CACHE_DIRECTORY_BYTES = 1024L * 1024 * 1024;
+    private static final Logger LOGGER = LoggerFactory.getLogger(GzipIndex.class);
+    private static final int MAGIC = 0x544c4758;
+    private static final int VERSION = 2;
+    // The use of an index is recorded on disk at most this often
+    private static final long TOUCH_INTERVAL_MS = 60_000;
+    private static final String METRIC = "cache.gzipIndex";
+
+    private static final Map<String, GzipIndex> INDEXES = new LinkedHashMap<String, GzipIndex>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, GzipIndex> eldest) {
+            return size() > MAX_CACHED_INDEXES;
+        }
+    };
+    // Uncompressed sizes of archives read without an index, by the same key as the indexes
+    private static final Map<String, Long> SIZES = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_CACHED_INDEXES;
+        }
+    };
+    // Compressed bytes inflated to check the size written in the trailer of a gzip file
+    private static final int SIZE_SAMPLE_BYTES = 1024 * 1024;
+    // Half the 4 GB the trailer wraps at: the projection from the sample is only a guess
+    private static final long MAX_TRAILER_ESTIMATE = 1L << 31;
+    // One lock per archive being indexed, so that concurrent requests for it build it once
+    private static final ConcurrentMap<String, Object> BUILD_LOCKS = new ConcurrentHashMap<>();
+
+    private final Path indexFile;
+    private final Path chunkFile;
+    // Chunk i holds the uncompressed bytes [uncompressed[i], uncompressed[i + 1]) stored at
+    // [compressed[i], compressed[i + 1]) in the chunk file
+    private final long[] uncompressed;
+    private final long[] compressed;
+    private volatile long lastUsed = System.currentTimeMillis();
+
+    private GzipIndex(Path indexFile, Path chunkFile, long[] uncompressed, long[] compressed) {
+        this.indexFile = indexFile;
+        this.chunkFile = chunkFile;
+        this.uncompressed = uncompressed;
+        this.compressed = compressed;
+    }
+
+    /**
+     * Returns the index of a gzip file, loading it from the cache directory or building it.
+     *
+     * @param file       the gzip file
+     * @param attributes its current attributes
+     * @return the index
+     * @throws IOException if the file cannot be read or is not in gzip format
+     */
+    static GzipIndex forFile(Path file, BasicFileAttributes attributes) throws IOException {
+        final String key = key(attributes);
+        GzipIndex index = cached(key);
+        if (index != null) {
+            if (index.markUsed()) {
+                LogMetrics.cacheHit(METRIC);
+                return index;
+            }
+            // Evicted from the cache directory since it was loaded
+            synchronized (INDEXES) {
+                INDEXES.remove(key, index);
+            }
+        }
+        final Object lock = BUILD_LOCKS.computeIfAbsent(key, k -> new Object());
+        try {
+            synchronized (lock) {
+                index = cached(key);
+                if (index == null) {
+                    // Counted even when the index is loaded from the cache directory rather than built
+                    LogMetrics.cacheMiss(METRIC);
+                    final Path directory = getCacheDirectory();
+                    index = load(directory, key);
+                    if (index == null) {
+                        index = build(file, directory, key, LogCursor.fileId(attributes));
+                    }
+                    synchronized (INDEXES) {
+                        INDEXES.put(key, index);
+                    }
+                }
+                return index;
+            }
+        } finally {
+            // The index is cached by now: a request arriving after the removal finds it there
+            BUILD_LOCKS.remove(key, lock);
+        }
+    }
+
+    /**
+     * Returns the uncompressed size of a gzip file, from its index if there is one, else from an
+     * earlier read to its end, else from its trailer.
+     *
+     * <p>The trailer only holds the size of the last gzip member modulo 4 GB. It is trusted when
+     * inflating the start of the file shows that the whole file is well under 4 GB uncompressed
+     * and holds at least as much as that start; otherwise the file is inflated to its end.
+     *
+     * @param file       the gzip file
+     * @param attributes its current attributes
+     * @return the uncompressed size
+     * @throws IOException if the file cannot be read or is not in gzip format
+     */
+    static long uncompressedSize(Path file, BasicFileAttributes attributes) throws IOException {
+        final String key = key(attributes);
+        GzipIndex index = cached(key);
+        if (index == null) {
+            synchronized (SIZES) {
+                final Long size = SIZES.get(key);
+                if (size != null) {
+                    return size;
+                }
+            }
+            index = load(getCacheDirectory(), key);
+        }
+        if (index != null) {
+            return index.size();
+        }
+        final long trailerSize = readTrailerSize(file);
+        final CountingInputStream compressed = new CountingInputStream(Files.newInputStream(file));
+        long size = 0;
+        try (InputStream in = new GZIPInputStream(compressed, 64 * 1024)) {
+            final byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                size += read;
+                if (compressed.count >= SIZE_SAMPLE_BYTES) {
+                    final double ratio = (double) size / compressed.count;
+                    if (ratio * attributes.size() < MAX_TRAILER_ESTIMATE && trailerSize >= size) {
+                        // Replaced by the exact size once a reader goes through the whole file
+                        recordSize(attributes, trailerSize);
+                        return trailerSize;
+                    }
+                    // Possibly 4 GB or more, or made of several members: count it all
+                    break;
+                }
+            }
+            while ((read = in.read(buffer)) >= 0) {
+                size += read;
+            }
+        }
+        recordSize(attributes, size);
+        return size;
+    }
+
+    /**
+     * @return the ISIZE field of the gzip trailer: the uncompressed size of the last member modulo 2^32
+     */
+    private static long readTrailerSize(Path file) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(file)) {
+            if (channel.size() < 4) {
+                return -1;
+            }
+            final ByteBuffer trailer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            channel.position(channel.size() - 4);
+            while (trailer.hasRemaining() && channel.read(trailer) >= 0) {
+                // fill the trailer
+            }
+            return trailer.hasRemaining() ? -1 : trailer.getInt(0) & 0xFFFFFFFFL;
+        }
+    }
+
+    /**
+     * Remembers the uncompressed size of a gzip file found by reading it to its end.
+     */
+    static void recordSize(BasicFileAttributes attributes, long size) {
+        synchronized (SIZES) {
+            SIZES.put(key(attributes), size);
+        }
+    }
+
+    static String key(BasicFileAttributes attributes) {
+        return LogCursor.fileId(attributes) + '-' + Long.toHexString(attributes.size())
+                + '-' + Long.toHexString(attributes.lastModifiedTime().toMillis());
+    }
+
+    private static GzipIndex cached(String key) {
+        synchronized (INDEXES) {
+            return INDEXES.get(key);
+        }
+    }
+
+    /**
+     * @return {@code ${catalina.base}/temp/tomcat-log-provider/gzip}, or the same under
+     * {@code java.io.tmpdir} outside Tomcat
+     */
+    static Path getCacheDirectory() {
+        final String catalinaBase = System.getProperty("catalina.base");
+        final Path base = catalinaBase != null ? Paths.get(catalinaBase, "temp") : Paths.get(System.getProperty("java.io.tmpdir"));
+        return base.resolve("tomcat-log-provider").resolve("gzip");
+    }
+
+    private static GzipIndex load(Path directory, String key) {
+        final Path indexFile = directory.resolve(key + ".index");
+        final Path chunkFile = directory.resolve(key + ".chunks");
+        if (!Files.isRegularFile(indexFile) || !Files.isRegularFile(chunkFile)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(indexFile))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            in.readUTF();
+            final int count = in.readInt();
+            final long[] uncompressed = new long[count + 1];
+            final long[] compressed = new long[count + 1];
+            for (int i = 0; i <= count; i++) {
+                uncompressed[i] = in.readLong();
+                compressed[i] = in.readLong();
+            }
+            if (compressed[count] != Files.size(chunkFile)) {
+                return null;
+            }
+            Files.setLastModifiedTime(indexFile, FileTime.fromMillis(System.currentTimeMillis()));
+            return new GzipIndex(indexFile, chunkFile, uncompressed, compressed);
+        } catch (IOException e) {
+            LOGGER.warn("Ignoring unreadable gzip index {}", indexFile, e);
+            return null;
+        }
+    }
+
+    private static GzipIndex build(Path file, Path directory, String key, String fileId) throws IOException {
+        Files.createDirectories(directory);
+        final long started = System.currentTimeMillis();
+        final Path chunkFile = directory.resolve(key + ".chunks");
+        final Path indexFile = directory.resolve(key + ".index");
+        final Path chunkTemp = Files.createTempFile(directory, key, ".chunks.tmp");
+        final Path indexTemp = Files.createTempFile(directory, key, ".index.tmp");
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            long[] uncompressed = new long[64];
+            long[] compressed = new long[64];
+            int count = 0;
+            // GZIPInputStream also reads files made of several concatenated gzip members
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(file), 64 * 1024);
+                 OutputStream out = new BufferedOutputStream(Files.newOutputStream(chunkTemp), 64 * 1024)) {
+                final byte[] chunk = new byte[CHUNK_BYTES];
+                final byte[] output = new byte[64 * 1024];
+                int filled;
+                while ((filled = in.readNBytes(chunk, 0, chunk.length)) > 0) {
+                    if (count + 1 >= uncompressed.length) {
+                        uncompressed = Arrays.copyOf(uncompressed, uncompressed.length * 2);
+                        compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                    }
+                    deflater.reset();
+                    deflater.setInput(chunk, 0, filled);
+                    deflater.finish();
+                    long written = 0;
+                    while (!deflater.finished()) {
+                        final int length = deflater.deflate(output);
+                        out.write(output, 0, length);
+                        written += length;
+                    }
+                    uncompressed[count + 1] = uncompressed[count] + filled;
+                    compressed[count + 1] = compressed[count] + written;
+                    count++;
+                }
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexTemp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                // The source file, so that the cache directory can drop indexes of deleted files
+                out.writeUTF(file.toAbsolutePath().toString());
+                out.writeInt(count);
+                for (int i = 0; i <= count; i++) {
+                    out.writeLong(uncompressed[i]);
+                    out.writeLong(compressed[i]);
+                }
+            }
+            // The index is moved last: its presence means the chunk file is complete
+            move(chunkTemp, chunkFile);
+            move(indexTemp, indexFile);
+            removeStale(directory, fileId, key);
+            trimCacheDirectory(directory, MAX_CACHE_DIRECTORY_BYTES, key);
+            LOGGER.info("Indexed {} ({} bytes uncompressed, {} chunks) in {} ms", file, uncompressed[count], count,
+                    System.currentTimeMillis() - started);
+            return new GzipIndex(indexFile, chunkFile, Arrays.copyOf(uncompressed, count + 1), Arrays.copyOf(compressed, count + 1));
+        } finally {
+            deflater.end();
+            Files.deleteIfExists(chunkTemp);
+            Files.deleteIfExists(indexTemp);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Deletes the indexes of earlier versions of the same file.
+     */
+    private static void removeStale(Path directory, String fileId, String key) {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, fileId + "-*")) {
+            for (Path entry : entries) {
+                if (!entry.getFileName().toString().startsWith(key + '.')) {
+                    Files.deleteIfExists(entry);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Cannot remove stale gzip indexes of {}", fileId, e);
+        }
+    }
+
+    /**
+     * Deletes the indexes of files that no longer exist, then the least recently used indexes
+     * until the cache directory holds at most {@code maxBytes}.
+     *
+     * @param directory the cache directory
+     * @param maxBytes  the maximum size of the indexes kept
+     * @param keep      the key of an index to keep whatever its size, or {@code null}
+     */
+    static void trimCacheDirectory(Path directory, long maxBytes, String keep) {
+        final List<CacheEntry> entries = new ArrayList<>();
+        long total = 0;
+        try (DirectoryStream<Path> indexFiles = Files.newDirectoryStream(directory, "*.index")) {
+            for (Path indexFile : indexFiles) {
+                final String name = indexFile.getFileName().toString();
+                final String key = name.substring(0, name.length() - ".index".length());
+                final Path chunkFile = directory.resolve(key + ".chunks");
+                final Path source = readSource(indexFile);
+                if (source == null || !Files.exists(source)) {
+                    delete(indexFile, chunkFile);
+                    continue;
+                }
+                try {
+                    final CacheEntry entry = new CacheEntry(indexFile, chunkFile);
+                    total += entry.bytes;
+                    if (!key.equals(keep)) {
+                        entries.add(entry);
+                    }
+                } catch (IOException e) {
+                    // Deleted by a concurrent trim
+                    LOGGER.debug("Skipping gzip index {}", indexFile, e);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Cannot trim the gzip index directory {}", directory, e);
+            return;
+        }
+        entries.sort(Comparator.comparingLong(entry -> entry.lastUsed));
+        for (CacheEntry entry : entries) {
+            if (total <= maxBytes) {
+                break;
+            }
+            delete(entry.indexFile, entry.chunkFile);
+            total -= entry.bytes;
+        }
+    }
+
+    /**
+     * @return the file an index was built from, or {@code null} if the index is unreadable or
+     * from an earlier version
+     */
+    private static Path readSource(Path indexFile) {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(indexFile))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            return Paths.get(in.readUTF());
+        } catch (IOException | InvalidPathException e) {
+            return null;
+        }
+    }
+
+    private static void delete(Path indexFile, Path chunkFile) {
+        try {
+            // The index goes first: without it the chunk file is never read
+            Files.deleteIfExists(indexFile);
+            Files.deleteIfExists(chunkFile);
+        } catch (IOException e) {
+            LOGGER.debug("Cannot delete gzip index {}", indexFile, e);
+        }
+    }
+
+    /**
+     * Records the use of the index for the eviction of the least recently used indexes.
+     *
+     * @return {@code false} if the index was deleted from the cache directory
+     */
+    private boolean markUsed() {
+        if (!Files.isRegularFile(chunkFile)) {
+            return false;
+        }
+        final long now = System.currentTimeMillis();
+        if (now - lastUsed >= TOUCH_INTERVAL_MS) {
+            lastUsed = now;
+            try {
+                Files.setLastModifiedTime(indexFile, FileTime.fromMillis(now));
+            } catch (IOException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    Path getChunkFile() {
+        return chunkFile;
+    }
+
+    /**
+     * @return the uncompressed size of the file
+     */
+    long size() {
+        return uncompressed[uncompressed.length - 1];
+    }
+
+    int getChunkCount() {
+        return uncompressed.length - 1;
+    }
+
+    /**
+     * @return the number of the chunk holding the uncompressed byte at {@code position}
+     */
+    int chunkAt(long position) {
+        final int found = Arrays.binarySearch(uncompressed, position);
+        return found >= 0 ? found : -found - 2;
+    }
+
+    long uncompressedOffset(int chunk) {
+        return uncompressed[chunk];
+    }
+
+    long compressedOffset(int chunk) {
+        return compressed[chunk];
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int read = super.read();
+            if (read >= 0) {
+                count++;
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+
+    private static final class CacheEntry {
+
+        private final Path indexFile;
+        private final Path chunkFile;
+        private final long lastUsed;
+        private final long bytes;
+
+        CacheEntry(Path indexFile, Path chunkFile) throws IOException {
+            this.indexFile = indexFile;
+            this.chunkFile = chunkFile;
+            this.lastUsed = Files.getLastModifiedTime(indexFile).toMillis();
+            this.bytes = Files.size(indexFile) + (Files.exists(chunkFile) ? Files.size(chunkFile) : 0);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package org.jahia.community.external.tomcat.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read-only view of the uncompressed content of a gzip file, through its {@link GzipIndex}.
+ *
+ * <p>Reading at a position inflates only the chunk holding it; the last inflated chunk is kept so
+ * that sequential reads inflate each chunk once.
+ */
+final class GzipSeekableChannel implements SeekableByteChannel {
+
+    private final GzipIndex index;
+    private final FileChannel chunks;
+    private final Inflater inflater = new Inflater(true);
+    private ByteBuffer compressed = ByteBuffer.allocate(64 * 1024);
+    private byte[] current = new byte[GzipIndex.CHUNK_BYTES];
+    private int currentChunk = -1;
+    private int currentLength;
+    private long position;
+    private boolean open = true;
+
+    GzipSeekableChannel(GzipIndex index) throws IOException {
+        this.index = index;
+        this.chunks = FileChannel.open(index.getChunkFile(), StandardOpenOption.READ);
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (position >= index.size()) {
+            return -1;
+        }
+        int total = 0;
+        while (dst.hasRemaining() && position < index.size()) {
+            final int chunk = index.chunkAt(position);
+            if (chunk != currentChunk) {
+                inflate(chunk);
+            }
+            final int offset = (int) (position - index.uncompressedOffset(chunk));
+            final int length = Math.min(dst.remaining(), currentLength - offset);
+            dst.put(current, offset, length);
+            position += length;
+            total += length;
+        }
+        return total;
+    }
+
+    private void inflate(int chunk) throws IOException {
+        final long from = index.compressedOffset(chunk);
+        final int length = (int) (index.compressedOffset(chunk + 1) - from);
+        // One extra byte: raw inflaters may need input past the end of the stream to finish it
+        if (compressed.capacity() < length + 1) {
+            compressed = ByteBuffer.allocate(length + 1);
+        }
+        compressed.clear().limit(length);
+        while (compressed.hasRemaining()) {
+            if (chunks.read(compressed, from + compressed.position()) < 0) {
+                throw new IOException("Truncated gzip chunk file " + index.getChunkFile());
+            }
+        }
+        compressed.array()[length] = 0;
+        final int expected = (int) (index.uncompressedOffset(chunk + 1) - index.uncompressedOffset(chunk));
+        if (current.length < expected) {
+            current = new byte[expected];
+        }
+        inflater.reset();
+        inflater.setInput(compressed.array(), 0, length + 1);
+        currentChunk = -1;
+        try {
+            int filled = 0;
+            while (filled < expected && !inflater.finished()) {
+                final int inflated = inflater.inflate(current, filled, expected - filled);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                filled += inflated;
+            }
+            if (filled != expected) {
+                throw new IOException("Corrupted gzip chunk " + chunk + " in " + index.getChunkFile());
+            }
+            currentLength = filled;
+            currentChunk = chunk;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted gzip chunk " + chunk + " in " + index.getChunkFile(), e);
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Negative position: " + newPosition);
+        }
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return index.size();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (open) {
+            open = false;
+            inflater.end();
+            chunks.close();
+        }
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
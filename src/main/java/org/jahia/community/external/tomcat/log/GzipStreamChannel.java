@@ -0,0 +1,144 @@
+package org.jahia.community.external.tomcat.log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Read-only view of the uncompressed content of a gzip file for readers that go through it from
+ * start to end, inflating it as it is read without any {@link GzipIndex}.
+ *
+ * <p>Moving forward skips the bytes in between; moving backward restarts the inflation from the
+ * start of the file, so it is only fit for readers that seldom or never do. The uncompressed size
+ * is recorded once the end of the file is reached, which spares a later lookup from inflating it.
+ */
+final class GzipStreamChannel implements SeekableByteChannel {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final Path file;
+    private final BasicFileAttributes attributes;
+    private InputStream in;
+    private long position;
+    // Where the stream is, which lags behind position until the next read after a forward move
+    private long streamPosition;
+    private boolean open = true;
+
+    GzipStreamChannel(Path file, BasicFileAttributes attributes) throws IOException {
+        this.file = file;
+        this.attributes = attributes;
+        this.in = openStream();
+    }
+
+    private InputStream openStream() throws IOException {
+        final InputStream raw = Files.newInputStream(file);
+        try {
+            // GZIPInputStream also reads files made of several concatenated gzip members
+            return new GZIPInputStream(raw, BUFFER_BYTES);
+        } catch (IOException | RuntimeException e) {
+            raw.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (position < streamPosition) {
+            in.close();
+            in = openStream();
+            streamPosition = 0;
+        }
+        while (streamPosition < position) {
+            final long skipped = in.skip(position - streamPosition);
+            if (skipped <= 0) {
+                GzipIndex.recordSize(attributes, streamPosition);
+                return -1;
+            }
+            streamPosition += skipped;
+        }
+        if (!dst.hasRemaining()) {
+            return 0;
+        }
+        final int read = dst.hasArray()
+                ? in.read(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining())
+                : readInto(dst);
+        if (read < 0) {
+            GzipIndex.recordSize(attributes, streamPosition);
+            return -1;
+        }
+        if (dst.hasArray()) {
+            dst.position(dst.position() + read);
+        }
+        position += read;
+        streamPosition = position;
+        return read;
+    }
+
+    private int readInto(ByteBuffer dst) throws IOException {
+        final byte[] bytes = new byte[Math.min(dst.remaining(), BUFFER_BYTES)];
+        final int read = in.read(bytes);
+        if (read > 0) {
+            dst.put(bytes, 0, read);
+        }
+        return read;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return position;
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        if (newPosition < 0) {
+            throw new IllegalArgumentException("Negative position: " + newPosition);
+        }
+        position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return GzipIndex.uncompressedSize(file, attributes);
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (open) {
+            open = false;
+            in.close();
+        }
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.jahia.community.external.tomcat.log;
+
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Number of entries per level and per minute of a log file, up to a known offset.
+ *
+ * <p>Counting resumes from that offset as the file grows, so only appended bytes are read. Minutes
+ * more than {@link #RETENTION_MINUTES} older than the last counted entry are dropped.
+ *
+ * <p>Not thread-safe; callers serialize access.
+ */
+final class LevelHistogram {
+
+    static final long MINUTE_MILLIS = 60_000;
+    static final int RETENTION_MINUTES = 7 * 24 * 60;
+
+    private final String fileId;
+    // Epoch minute -> count per index in LogEntryParser.LEVELS
+    private final TreeMap<Long, long[]> minutes = new TreeMap<>();
+    private long offset;
+    private boolean skippingLine;
+
+    LevelHistogram(String fileId) {
+        this.fileId = fileId;
+    }
+
+    /**
+     * @return {@code true} if the counts still describe the file, {@code false} if it was replaced
+     * or truncated since
+     */
+    boolean isValidFor(BasicFileAttributes attributes) {
+        return fileId.equals(LogCursor.fileId(attributes)) && attributes.size() >= offset;
+    }
+
+    /**
+     * @return the offset of the first line not counted yet
+     */
+    long getOffset() {
+        return offset;
+    }
+
+    void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    /**
+     * @return whether the bytes at the offset are the end of a line too long to be read at once,
+     * already counted
+     */
+    boolean isSkippingLine() {
+        return skippingLine;
+    }
+
+    void setSkippingLine(boolean skippingLine) {
+        this.skippingLine = skippingLine;
+    }
+
+    void count(long timestamp, int level) {
+        final long minute = Math.floorDiv(timestamp, MINUTE_MILLIS);
+        minutes.computeIfAbsent(minute, key -> new long[LogEntryParser.LEVELS.length])[level]++;
+    }
+
+    void prune() {
+        if (!minutes.isEmpty()) {
+            minutes.headMap(minutes.lastKey() - RETENTION_MINUTES).clear();
+        }
+    }
+
+    /**
+     * @return the counts of the minutes between {@code fromMinute} and {@code toMinute} included,
+     * backed by the histogram
+     */
+    NavigableMap<Long, long[]> minutes(long fromMinute, long toMinute) {
+        return fromMinute > toMinute ? new TreeMap<>() : minutes.subMap(fromMinute, true, toMinute, true);
+    }
+
+    /**
+     * @return the last minute holding entries; the histogram must not be empty
+     */
+    long getLastMinute() {
+        return minutes.lastKey();
+    }
+
+    int getMinuteCount() {
+        return minutes.size();
+    }
+}
@@ -0,0 +1,143 @@
+package org.jahia.community.external.tomcat.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+
+/**
+ * Sparse index of line start offsets in a log file: one checkpoint every {@code stride} lines.
+ *
+ * <p>The index only ever scans bytes it has not seen yet, so keeping it up to date with a growing
+ * file costs the appended bytes. Its memory is bounded: when the checkpoint limit is reached
+ * every other checkpoint is dropped and the stride doubles.
+ *
+ * <p>Not thread-safe; callers serialize access.
+ */
+final class LineIndex {
+
+    static final int INITIAL_STRIDE = 256;
+    static final int MAX_CHECKPOINTS = 16 * 1024;
+    private static final int SCAN_BUFFER_BYTES = 1024 * 1024;
+
+    private final String fileId;
+    private final int maxCheckpoints;
+    private long[] checkpoints = new long[64];
+    private int checkpointCount = 1;
+    private int stride;
+    // Number of newline-terminated lines scanned so far, and the offset right after the last one
+    private long completeLines;
+    private long indexedBytes;
+    private long scannedSize;
+    private long lastModified;
+
+    LineIndex(String fileId) {
+        this(fileId, INITIAL_STRIDE, MAX_CHECKPOINTS);
+    }
+
+    LineIndex(String fileId, int initialStride, int maxCheckpoints) {
+        this.fileId = fileId;
+        this.stride = initialStride;
+        this.maxCheckpoints = maxCheckpoints;
+    }
+
+    /**
+     * @return {@code true} if the index can be extended to match the file, {@code false} if the
+     * file was replaced, truncated or rewritten in place and the index must be rebuilt
+     */
+    boolean isValidFor(BasicFileAttributes attributes) {
+        if (!fileId.equals(LogCursor.fileId(attributes)) || attributes.size() < scannedSize) {
+            return false;
+        }
+        return attributes.size() != scannedSize || attributes.lastModifiedTime().toMillis() == lastModified;
+    }
+
+    /**
+     * Scans the bytes appended since the last update.
+     *
+     * @param channel    an open channel on the file
+     * @param attributes the attributes read just before opening the channel
+     * @throws IOException if the file cannot be read
+     */
+    void update(SeekableByteChannel channel, BasicFileAttributes attributes) throws IOException {
+        final long size = attributes.size();
+        if (size > indexedBytes) {
+            final ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(SCAN_BUFFER_BYTES, size - indexedBytes));
+            final byte[] bytes = buffer.array();
+            long position = indexedBytes;
+            channel.position(position);
+            while (position < size) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), size - position));
+                final int read = channel.read(buffer);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (bytes[i] == '\n') {
+                        completeLines++;
+                        indexedBytes = position + i + 1;
+                        if (completeLines % stride == 0) {
+                            addCheckpoint(indexedBytes);
+                        }
+                    }
+                }
+                position += read;
+            }
+        }
+        scannedSize = size;
+        lastModified = attributes.lastModifiedTime().toMillis();
+    }
+
+    private void addCheckpoint(long offset) {
+        if (checkpointCount == maxCheckpoints) {
+            // Keep checkpoints 0, 2, 4... which are exactly the multiples of the doubled stride
+            for (int i = 0; i < checkpointCount / 2; i++) {
+                checkpoints[i] = checkpoints[i * 2];
+            }
+            checkpointCount /= 2;
+            stride *= 2;
+            if (completeLines % stride != 0) {
+                return;
+            }
+        }
+        if (checkpointCount == checkpoints.length) {
+            checkpoints = Arrays.copyOf(checkpoints, Math.min(checkpoints.length * 2, maxCheckpoints));
+        }
+        checkpoints[checkpointCount++] = offset;
+    }
+
+    /**
+     * @return the number of lines, counting a trailing line without newline
+     */
+    long getLineCount() {
+        return completeLines + (scannedSize > indexedBytes ? 1 : 0);
+    }
+
+    int getStride() {
+        return stride;
+    }
+
+    int getCheckpointCount() {
+        return checkpointCount;
+    }
+
+    /**
+     * @return the nearest indexed line at or before {@code line}
+     */
+    long checkpointLine(long line) {
+        return Math.min(line / stride, checkpointCount - 1L) * stride;
+    }
+
+    /**
+     * @return the byte offset of the line returned by {@link #checkpointLine(long)}
+     */
+    long checkpointOffset(long line) {
+        return checkpoints[(int) Math.min(line / stride, checkpointCount - 1L)];
+    }
+
+    long getScannedSize() {
+        return scannedSize;
+    }
+}
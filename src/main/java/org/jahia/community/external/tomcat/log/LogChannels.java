@@ -0,0 +1,128 @@
+package org.jahia.community.external.tomcat.log;
+
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Locale;
+
+/**
+ * Opens log files for reading, decompressing gzip-rotated logs transparently.
+ *
+ * <p>Readers go through this class rather than {@link Files} so that offsets, sizes and line
+ * numbers all refer to the uncompressed content: tail, paging, time ranges and search work the
+ * same on {@code catalina.2026-10-17.log.gz} as on {@code catalina.out}. Random access into a
+ * gzip file goes through a {@link GzipIndex} built on first access; reading one from start to end
+ * with {@link #openSequential(Path)} needs no index.
+ */
+public final class LogChannels {
+
+    private LogChannels() {
+        throw new AssertionError();
+    }
+
+    /**
+     * @return whether the file is read through a decompressed view
+     */
+    public static boolean isCompressed(Path file) {
+        return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz");
+    }
+
+    /**
+     * @param file the file to open
+     * @return a read-only channel on the uncompressed content of the file
+     * @throws IOException if the file cannot be read, or is named {@code .gz} but is not in gzip format
+     */
+    public static SeekableByteChannel open(Path file) throws IOException {
+        if (!isCompressed(file)) {
+            return Files.newByteChannel(file);
+        }
+        return new GzipSeekableChannel(GzipIndex.forFile(file, Files.readAttributes(file, BasicFileAttributes.class)));
+    }
+
+    /**
+     * Opens a file to read it from start to end. Moving the channel forward skips ahead, but moving
+     * it backward in a compressed file inflates the file again from its start.
+     *
+     * @param file the file to open
+     * @return a read-only channel on the uncompressed content of the file
+     * @throws IOException if the file cannot be read, or is named {@code .gz} but is not in gzip format
+     */
+    public static SeekableByteChannel openSequential(Path file) throws IOException {
+        if (!isCompressed(file)) {
+            return Files.newByteChannel(file);
+        }
+        return new GzipStreamChannel(file, Files.readAttributes(file, BasicFileAttributes.class));
+    }
+
+    /**
+     * @param file the file to read the attributes of
+     * @return the attributes of the file, with the uncompressed size for compressed files
+     * @throws IOException if the file cannot be read
+     */
+    public static BasicFileAttributes readAttributes(Path file) throws IOException {
+        final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        if (!isCompressed(file)) {
+            return attributes;
+        }
+        return new UncompressedAttributes(attributes, GzipIndex.uncompressedSize(file, attributes));
+    }
+
+    private static final class UncompressedAttributes implements BasicFileAttributes {
+
+        private final BasicFileAttributes attributes;
+        private final long size;
+
+        UncompressedAttributes(BasicFileAttributes attributes, long size) {
+            this.attributes = attributes;
+            this.size = size;
+        }
+
+        @Override
+        public FileTime lastModifiedTime() {
+            return attributes.lastModifiedTime();
+        }
+
+        @Override
+        public FileTime lastAccessTime() {
+            return attributes.lastAccessTime();
+        }
+
+        @Override
+        public FileTime creationTime() {
+            return attributes.creationTime();
+        }
+
+        @Override
+        public boolean isRegularFile() {
+            return attributes.isRegularFile();
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return attributes.isDirectory();
+        }
+
+        @Override
+        public boolean isSymbolicLink() {
+            return attributes.isSymbolicLink();
+        }
+
+        @Override
+        public boolean isOther() {
+            return attributes.isOther();
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public Object fileKey() {
+            return attributes.fileKey();
+        }
+    }
+}
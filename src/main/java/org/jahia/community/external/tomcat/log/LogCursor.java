@@ -0,0 +1,107 @@
+package org.jahia.community.external.tomcat.log;
+
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+
+/**
+ * Opaque position in a log file, handed to clients so they can resume reading where they stopped.
+ *
+ * <p>A cursor pairs a byte offset with an identity of the file it was taken on. The identity is
+ * derived from the filesystem file key (device + inode on POSIX systems), so a rotated file is
+ * detected even when the new file has already grown past the old offset.
+ */
+public final class LogCursor {
+
+    private static final char SEPARATOR = '.';
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final String fileId;
+    private final long offset;
+
+    public LogCursor(String fileId, long offset) {
+        this.fileId = fileId;
+        this.offset = offset;
+    }
+
+    public String getFileId() {
+        return fileId;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Computes the identity of a file from its attributes.
+     *
+     * <p>Falls back to the creation time on filesystems that do not expose a file key (Windows).
+     *
+     * @param attributes the attributes of the file
+     * @return a short hexadecimal identity, stable for the lifetime of the file
+     */
+    public static String fileId(BasicFileAttributes attributes) {
+        final Object key = attributes.fileKey();
+        final String source = key != null ? key.toString() : "ct" + attributes.creationTime().toMillis();
+        // FNV-1a keeps the cursor short and does not leak inode numbers to the client
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < source.length(); i++) {
+            hash ^= source.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return Long.toHexString(hash);
+    }
+
+    /**
+     * @return the string form handed to clients, parsable with {@link #decode(String)}
+     */
+    public String encode() {
+        return fileId + SEPARATOR + Long.toHexString(offset);
+    }
+
+    /**
+     * Parses a cursor previously produced by {@link #encode()}.
+     *
+     * @param value the encoded cursor, may be {@code null}
+     * @return the cursor, or {@code null} if {@code value} is null or malformed
+     */
+    public static LogCursor decode(String value) {
+        if (value == null) {
+            return null;
+        }
+        final int separator = value.indexOf(SEPARATOR);
+        if (separator <= 0 || separator == value.length() - 1) {
+            return null;
+        }
+        try {
+            final String id = value.substring(0, separator);
+            Long.parseUnsignedLong(id, 16);
+            final long offset = Long.parseLong(value.substring(separator + 1), 16);
+            return offset < 0 ? null : new LogCursor(id, offset);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        } else if (obj != null && this.getClass() == obj.getClass()) {
+            final LogCursor other = (LogCursor) obj;
+            return offset == other.offset && fileId.equals(other.fileId);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fileId, offset);
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
@@ -0,0 +1,351 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cached metadata of the files under the log directory, kept up to date by a {@link WatchService}.
+ *
+ * <p>Each directory is listed once, with one {@code stat} per entry, into a snapshot holding the
+ * name, type, size and modification time of its files and subdirectories; the MIME type of a file
+ * is resolved from its name when first asked for. Entries that
+ * are not regular files or directories, or symlinks resolving outside the log directory, are left
+ * out. Watch events then refresh only the entries they name, so a log file growing does not cause
+ * its directory to be listed again; the whole snapshot is dropped only when events were lost.
+ *
+ * <p>Directories are watched as they are first listed. If the file system cannot watch them,
+ * nothing is cached and every lookup reads the disk.
+ */
+final class LogDirectoryCache implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogDirectoryCache.class);
+    private static final String METRIC = "cache.directory";
+
+    private final Path root;
+    private final Function<String, String> mimeTypes;
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<WatchKey, String> watchedDirectories = new ConcurrentHashMap<>();
+    // Guarded by this
+    private WatchService watchService;
+    private boolean watchUnavailable;
+    private boolean closed;
+
+    /**
+     * @param root      the log directory, without symlinks
+     * @param mimeTypes resolves the MIME type of a file from its name
+     */
+    LogDirectoryCache(Path root, Function<String, String> mimeTypes) {
+        this.root = root;
+        this.mimeTypes = mimeTypes;
+    }
+
+    /**
+     * @param relativePath a path relative to the log directory, with {@code /} separators
+     * @return the entry, or {@code null} if there is no such file or directory, or the path leaves
+     * the log directory
+     * @throws IOException if a directory on the path cannot be listed
+     */
+    Entry lookup(String relativePath) throws IOException {
+        final String normalized = normalize(relativePath);
+        if (normalized == null) {
+            return null;
+        }
+        if (normalized.isEmpty()) {
+            return read(root, root.getFileName().toString());
+        }
+        final int slash = normalized.lastIndexOf('/');
+        final String parent = slash < 0 ? "" : normalized.substring(0, slash);
+        return isDirectory(parent) ? snapshot(parent).get(normalized.substring(slash + 1)) : null;
+    }
+
+    /**
+     * @param relativeDirectory a directory path relative to the log directory, as accepted by
+     *                          {@link #lookup(String)}
+     * @return the entries of the directory ordered by name, or {@code null} if it is not a directory
+     * @throws IOException if the directory cannot be listed
+     */
+    List<Entry> list(String relativeDirectory) throws IOException {
+        final String normalized = normalize(relativeDirectory);
+        return normalized != null && isDirectory(normalized) ? snapshot(normalized).entries() : null;
+    }
+
+    /**
+     * @return the path without empty segments, or {@code null} if it has {@code .} or {@code ..} segments
+     */
+    private static String normalize(String relativePath) {
+        final StringBuilder normalized = new StringBuilder();
+        for (String segment : relativePath.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (".".equals(segment) || "..".equals(segment)) {
+                return null;
+            }
+            normalized.append(normalized.length() > 0 ? "/" : "").append(segment);
+        }
+        return normalized.toString();
+    }
+
+    private boolean isDirectory(String normalized) throws IOException {
+        String directory = "";
+        for (String segment : normalized.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            final Entry entry = snapshot(directory).get(segment);
+            if (entry == null || !entry.isDirectory()) {
+                return false;
+            }
+            directory = directory.isEmpty() ? segment : directory + '/' + segment;
+        }
+        return true;
+    }
+
+    private Snapshot snapshot(String directory) {
+        final Snapshot snapshot = snapshots.get(directory);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        final Path path = directory.isEmpty() ? root : root.resolve(directory);
+        // Watch before listing so that no change made in between is missed
+        if (!watch(path, directory)) {
+            return new Snapshot(path);
+        }
+        return snapshots.computeIfAbsent(directory, key -> new Snapshot(path));
+    }
+
+    private synchronized boolean watch(Path path, String directory) {
+        if (closed || watchUnavailable) {
+            return false;
+        }
+        try {
+            if (watchService == null) {
+                final WatchService service = root.getFileSystem().newWatchService();
+                watchService = service;
+                final Thread watcher = new Thread(() -> processEvents(service), "tomcat-log-directory-watcher");
+                watcher.setDaemon(true);
+                watcher.start();
+            }
+            final WatchKey key = path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+            watchedDirectories.put(key, directory);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            if (watchService == null) {
+                LOGGER.warn("Cannot watch {}; log directory metadata will not be cached", root, e);
+                watchUnavailable = true;
+            } else {
+                LOGGER.debug("Cannot watch {}", path, e);
+            }
+            return false;
+        }
+    }
+
+    private void processEvents(WatchService service) {
+        while (true) {
+            final WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+            final String directory = watchedDirectories.get(key);
+            final Snapshot snapshot = directory != null ? snapshots.get(directory) : null;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (snapshot != null) {
+                    // Events were lost on overflow: the whole directory must be listed again
+                    snapshot.invalidate(event.kind() == StandardWatchEventKinds.OVERFLOW ? null : event.context().toString());
+                }
+            }
+            if (!key.reset()) {
+                // The directory is gone: forget it and everything below it
+                watchedDirectories.remove(key);
+                if (directory != null) {
+                    snapshots.keySet().removeIf(cached -> directory.isEmpty() || cached.equals(directory) || cached.startsWith(directory + '/'));
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops watching the log directory and drops the cached metadata.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        snapshots.clear();
+        watchedDirectories.clear();
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                LOGGER.debug("Cannot close log directory watch service", e);
+            }
+            watchService = null;
+        }
+    }
+
+    private Entry read(Path path, String name) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            if (attributes.isSymbolicLink()) {
+                // Same rule as TomcatLogDataSource.getFile(String): symlinks must not expose files outside the log root
+                if (!path.toRealPath().startsWith(root)) {
+                    return null;
+                }
+                attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            }
+            if (attributes.isDirectory()) {
+                return new Entry(name, true, 0, attributes.lastModifiedTime().toMillis(), null);
+            }
+            if (attributes.isRegularFile()) {
+                return new Entry(name, false, attributes.size(), attributes.lastModifiedTime().toMillis(), mimeTypes);
+            }
+            return null;
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The entries of one directory, refreshed entry by entry as watch events name them.
+     */
+    private final class Snapshot {
+
+        private final Path directory;
+        // Guarded by this; null until listed
+        private TreeMap<String, Entry> entries;
+        private final Set<String> staleNames = new HashSet<>();
+
+        Snapshot(Path directory) {
+            this.directory = directory;
+        }
+
+        synchronized Entry get(String name) throws IOException {
+            refresh();
+            return entries.get(name);
+        }
+
+        synchronized List<Entry> entries() throws IOException {
+            refresh();
+            return new ArrayList<>(entries.values());
+        }
+
+        /**
+         * @param name the changed entry, or {@code null} if the whole directory must be listed again
+         */
+        synchronized void invalidate(String name) {
+            if (entries == null) {
+                return;
+            }
+            if (name == null) {
+                entries = null;
+                staleNames.clear();
+            } else {
+                staleNames.add(name);
+            }
+        }
+
+        private void refresh() throws IOException {
+            if (entries == null) {
+                LogMetrics.cacheMiss(METRIC);
+                final TreeMap<String, Entry> listed = new TreeMap<>();
+                try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+                    for (Path child : children) {
+                        final String name = child.getFileName().toString();
+                        final Entry entry = read(child, name);
+                        if (entry != null) {
+                            listed.put(name, entry);
+                        }
+                    }
+                }
+                entries = listed;
+                staleNames.clear();
+                return;
+            }
+            LogMetrics.cacheHit(METRIC);
+            for (String name : staleNames) {
+                final Entry entry = read(directory.resolve(name), name);
+                if (entry != null) {
+                    entries.put(name, entry);
+                } else {
+                    entries.remove(name);
+                }
+            }
+            staleNames.clear();
+        }
+    }
+
+    /**
+     * Metadata of a file or directory under the log directory.
+     */
+    static final class Entry {
+
+        private final String name;
+        private final boolean directory;
+        private final long size;
+        private final long lastModified;
+        private final Function<String, String> mimeTypes;
+        // Resolved on first use: existence checks and listings do not need it
+        private volatile String mimeType;
+
+        Entry(String name, boolean directory, long size, long lastModified, Function<String, String> mimeTypes) {
+            this.name = name;
+            this.directory = directory;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.mimeTypes = mimeTypes;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        boolean isDirectory() {
+            return directory;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * @return the MIME type of a file, {@code null} for a directory
+         */
+        String getMimeType() {
+            if (mimeType == null && mimeTypes != null) {
+                mimeType = mimeTypes.apply(name);
+            }
+            return mimeType;
+        }
+    }
+}
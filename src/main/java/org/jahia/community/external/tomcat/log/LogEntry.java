@@ -0,0 +1,116 @@
+package org.jahia.community.external.tomcat.log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A log entry: a line starting with a timestamp and the continuation lines that follow it, such as
+ * the frames of a stack trace.
+ *
+ * <p>Two layouts are recognized:
+ * <ul>
+ * <li>{@code 2026-10-18 14:02:03,456: ERROR [JCRSessionWrapper] - Cannot save} (Jahia log4j)</li>
+ * <li>{@code 18-Oct-2026 14:02:03.456 SEVERE [main] org.apache.catalina.core.StandardContext.start Error}
+ * (Tomcat {@code OneLineFormatter})</li>
+ * </ul>
+ * Fields missing from a line are {@code null}; lines that do not start with a timestamp at all
+ * only appear as continuation lines, or as an entry without header at the very start of a file.
+ */
+public final class LogEntry {
+
+    /**
+     * Continuation lines kept per entry; a runaway entry, such as a file without timestamps, does
+     * not hold more.
+     */
+    public static final int MAX_CONTINUATION_LINES = 1000;
+
+    private final long timestamp;
+    private final String level;
+    private final String thread;
+    private final String logger;
+    private final String message;
+    private List<String> continuation = Collections.emptyList();
+    private int omittedLines;
+
+    LogEntry(long timestamp, String level, String thread, String logger, String message) {
+        this.timestamp = timestamp;
+        this.level = level;
+        this.thread = thread;
+        this.logger = logger;
+        this.message = message;
+    }
+
+    /**
+     * @return the time of the entry in epoch milliseconds, or {@link LogTimestamps#NONE} for an
+     * entry without header
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return the level as written, such as {@code ERROR} or {@code SEVERE}
+     */
+    public String getLevel() {
+        return level;
+    }
+
+    /**
+     * @return the bracketed field after the level: the thread in Tomcat layouts, the short logger
+     * name in the default Jahia layout
+     */
+    public String getThread() {
+        return thread;
+    }
+
+    /**
+     * @return the logger written after the bracketed field, such as a class and method name
+     */
+    public String getLogger() {
+        return logger;
+    }
+
+    /**
+     * @return the message on the first line of the entry
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return the lines following the first one, in file order
+     */
+    public List<String> getContinuation() {
+        return continuation;
+    }
+
+    /**
+     * @return the number of continuation lines left out beyond {@link #MAX_CONTINUATION_LINES}
+     */
+    public int getOmittedLines() {
+        return omittedLines;
+    }
+
+    void addContinuation(String line) {
+        if (continuation.size() >= MAX_CONTINUATION_LINES) {
+            omittedLines++;
+            return;
+        }
+        if (continuation.isEmpty()) {
+            continuation = new ArrayList<>();
+        }
+        continuation.add(line);
+    }
+
+    void addContinuation(LogEntry following) {
+        for (String line : following.continuation) {
+            addContinuation(line);
+        }
+        omittedLines += following.omittedLines;
+    }
+
+    void addOmittedLines(int count) {
+        omittedLines += count;
+    }
+}
@@ -0,0 +1,153 @@
+package org.jahia.community.external.tomcat.log;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Splits the first line of a {@link LogEntry} into its fields, straight from the UTF-8 bytes.
+ *
+ * <p>After the timestamp come, each optional: a level, a bracketed thread, a logger and the
+ * message, which may be introduced by {@code -}. A word is only read as a logger when it looks like
+ * one (a dotted name, or a name followed by {@code :}), so the first word of a message is not mistaken
+ * for it.
+ */
+final class LogEntryParser {
+
+    /**
+     * Levels of log4j and java.util.logging, in the order histograms report them.
+     */
+    static final String[] LEVELS = {
+            "FATAL", "SEVERE", "ERROR", "WARN", "WARNING", "INFO", "CONFIG", "DEBUG", "FINE", "FINER", "TRACE", "FINEST"
+    };
+    private static final byte[][] LEVEL_BYTES = new byte[LEVELS.length][];
+
+    static {
+        for (int i = 0; i < LEVELS.length; i++) {
+            LEVEL_BYTES[i] = LEVELS[i].getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private LogEntryParser() {
+        throw new AssertionError();
+    }
+
+    /**
+     * @param bytes the buffer holding the line
+     * @param from  the index of the first byte of the line
+     * @param to    the index right after the last byte of the line, line terminator excluded
+     * @return the entry started by the line, or {@code null} if the line does not start with a timestamp
+     */
+    static LogEntry parse(byte[] bytes, int from, int to) {
+        final long timestamp = LogTimestamps.parse(bytes, from, to);
+        if (timestamp == LogTimestamps.NONE) {
+            return null;
+        }
+        int p = skipSeparators(bytes, LogTimestamps.skip(bytes, from, to), to);
+        final int level = levelAt(bytes, p, to);
+        if (level >= 0) {
+            p = skipSpaces(bytes, p + LEVEL_BYTES[level].length, to);
+        }
+        String thread = null;
+        if (p < to && bytes[p] == '[') {
+            final int close = indexOf(bytes, p + 1, to, (byte) ']');
+            if (close >= 0) {
+                thread = decode(bytes, p + 1, close);
+                p = skipSpaces(bytes, close + 1, to);
+            }
+        }
+        String logger = null;
+        final int wordEnd = indexOf(bytes, p, to, (byte) ' ');
+        final int loggerEnd = loggerEnd(bytes, p, wordEnd >= 0 ? wordEnd : to);
+        if (loggerEnd > p) {
+            logger = decode(bytes, p, loggerEnd);
+            p = skipSpaces(bytes, wordEnd >= 0 ? wordEnd : to, to);
+        }
+        if (p < to && bytes[p] == '-' && (p + 1 == to || bytes[p + 1] == ' ')) {
+            p = Math.min(p + 2, to);
+        }
+        return new LogEntry(timestamp, level >= 0 ? LEVELS[level] : null, thread, logger, decode(bytes, p, to));
+    }
+
+    /**
+     * @param bytes the buffer holding a line whose timestamp {@link LogTimestamps#parse(byte[], int, int)} read
+     * @param from  the index of the first byte of the line
+     * @param to    the index right after the last byte of the line
+     * @return the index of the level of the line in {@link #LEVELS}, or {@code -1} if it has none
+     */
+    static int levelIndex(byte[] bytes, int from, int to) {
+        return levelAt(bytes, skipSeparators(bytes, LogTimestamps.skip(bytes, from, to), to), to);
+    }
+
+    /**
+     * @return the index in {@link #LEVELS} of {@code level} in any case, or {@code -1} if it is not a level
+     */
+    static int levelIndex(String level) {
+        for (int i = 0; i < LEVELS.length; i++) {
+            if (LEVELS[i].equalsIgnoreCase(level)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int levelAt(byte[] bytes, int p, int to) {
+        for (int i = 0; i < LEVEL_BYTES.length; i++) {
+            final byte[] level = LEVEL_BYTES[i];
+            final int end = p + level.length;
+            if (end <= to && (end == to || bytes[end] == ' ') && regionMatches(bytes, p, level)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Returns the end of the logger name starting at from, or from if the word is not one
+    private static int loggerEnd(byte[] bytes, int from, int to) {
+        final int end = to > from && bytes[to - 1] == ':' ? to - 1 : to;
+        boolean dotted = false;
+        for (int i = from; i < end; i++) {
+            final byte b = bytes[i];
+            if (b == '.') {
+                dotted = true;
+            } else if (!(b >= 'a' && b <= 'z' || b >= 'A' && b <= 'Z' || b >= '0' && b <= '9' || b == '_' || b == '$')) {
+                return from;
+            }
+        }
+        return end > from && (dotted || end < to) ? end : from;
+    }
+
+    private static int skipSeparators(byte[] bytes, int p, int to) {
+        while (p < to && (bytes[p] == ' ' || bytes[p] == ':')) {
+            p++;
+        }
+        return p;
+    }
+
+    private static int skipSpaces(byte[] bytes, int p, int to) {
+        while (p < to && bytes[p] == ' ') {
+            p++;
+        }
+        return p;
+    }
+
+    private static boolean regionMatches(byte[] bytes, int from, byte[] value) {
+        for (int i = 0; i < value.length; i++) {
+            if (bytes[from + i] != value[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] bytes, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String decode(byte[] bytes, int from, int to) {
+        return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,157 @@
+package org.jahia.community.external.tomcat.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads the last {@link LogEntry entries} of a log file, with their continuation lines.
+ *
+ * <p>The file is read backwards in windows of {@link LogTailer#WINDOW_BYTES}. Continuation lines at
+ * the top of a window belong to the last entry of the window before it, so they are carried over
+ * until that entry is read. At most the last {@link #MAX_SCAN_BYTES} of the file are read, which
+ * bounds the cost of a level filter that matches few entries.
+ */
+public final class LogEntryReader {
+
+    static final long MAX_SCAN_BYTES = 64L * 1024 * 1024;
+
+    private LogEntryReader() {
+        throw new AssertionError();
+    }
+
+    /**
+     * @param file       the file to read
+     * @param maxEntries the maximum number of entries to return
+     * @param level      the level the entries must have, in any case, or {@code null} for every entry
+     * @return the last complete entries in chronological order; an entry still being written at the
+     * end of the file is left out, except for its complete lines already written
+     * @throws IOException if the file cannot be read
+     */
+    public static List<LogEntry> tail(Path file, int maxEntries, String level) throws IOException {
+        final int levelFilter = level != null ? LogEntryParser.levelIndex(level) : -1;
+        if (maxEntries <= 0 || level != null && levelFilter < 0) {
+            return Collections.emptyList();
+        }
+        final String levelName = levelFilter >= 0 ? LogEntryParser.LEVELS[levelFilter] : null;
+        final List<LogEntry> newestFirst = new ArrayList<>();
+        try (SeekableByteChannel channel = LogChannels.open(file)) {
+            long end = channel.size();
+            final long scanLimit = Math.max(0, end - MAX_SCAN_BYTES);
+            boolean last = true;
+            // Lines without timestamp at the top of the window read last, oldest first
+            LogEntry carried = null;
+            while (end > scanLimit && newestFirst.size() < maxEntries) {
+                final long start = Math.max(scanLimit, end - LogTailer.WINDOW_BYTES);
+                final byte[] bytes = read(channel, start, end);
+                int to = bytes.length;
+                if (last) {
+                    // The last line is complete only once its terminator is written
+                    to = lastIndexOf(bytes, 0, to, (byte) '\n') + 1;
+                    last = false;
+                }
+                int from = 0;
+                if (start > 0) {
+                    // The first line may have started before the window: it is read with the next one
+                    from = indexOf(bytes, 0, to, (byte) '\n') + 1;
+                    if (from == 0) {
+                        // A single line longer than the window: give up on it
+                        end = start;
+                        continue;
+                    }
+                }
+                final List<LogEntry> entries = new ArrayList<>();
+                LogEntry orphans = null;
+                int lineStart = from;
+                for (int i = from; i < to; i++) {
+                    if (bytes[i] != '\n') {
+                        continue;
+                    }
+                    final int lineEnd = i > lineStart && bytes[i - 1] == '\r' ? i - 1 : i;
+                    final LogEntry entry = LogEntryParser.parse(bytes, lineStart, lineEnd);
+                    if (entry != null) {
+                        entries.add(entry);
+                    } else {
+                        final String line = new String(bytes, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8);
+                        if (entries.isEmpty()) {
+                            orphans = orphans != null ? orphans : headerless();
+                            orphans.addContinuation(line);
+                        } else {
+                            entries.get(entries.size() - 1).addContinuation(line);
+                        }
+                    }
+                    lineStart = i + 1;
+                }
+                if (carried != null) {
+                    if (!entries.isEmpty()) {
+                        entries.get(entries.size() - 1).addContinuation(carried);
+                    } else {
+                        orphans = orphans != null ? orphans : headerless();
+                        orphans.addContinuation(carried);
+                    }
+                }
+                carried = orphans;
+                for (int i = entries.size() - 1; i >= 0 && newestFirst.size() < maxEntries; i--) {
+                    if (levelName == null || levelName.equals(entries.get(i).getLevel())) {
+                        newestFirst.add(entries.get(i));
+                    }
+                }
+                end = start + from;
+            }
+            if (end == 0 && carried != null && levelName == null && newestFirst.size() < maxEntries) {
+                newestFirst.add(withoutHeader(carried));
+            }
+        }
+        Collections.reverse(newestFirst);
+        return newestFirst;
+    }
+
+    // Holds continuation lines until the entry they belong to is read
+    private static LogEntry headerless() {
+        return new LogEntry(LogTimestamps.NONE, null, null, null, null);
+    }
+
+    // Lines at the start of the file, before any timestamp: the first one stands as the message
+    private static LogEntry withoutHeader(LogEntry lines) {
+        final List<String> continuation = lines.getContinuation();
+        final LogEntry entry = new LogEntry(LogTimestamps.NONE, null, null, null, continuation.get(0));
+        for (String line : continuation.subList(1, continuation.size())) {
+            entry.addContinuation(line);
+        }
+        entry.addOmittedLines(lines.getOmittedLines());
+        return entry;
+    }
+
+    private static byte[] read(SeekableByteChannel channel, long start, long end) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        channel.position(start);
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // keep reading until the window is full or the file was truncated under us
+        }
+        return buffer.position() == buffer.capacity() ? buffer.array() : Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    private static int indexOf(byte[] bytes, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(byte[] bytes, int from, int to, byte value) {
+        for (int i = to - 1; i >= from; i--) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
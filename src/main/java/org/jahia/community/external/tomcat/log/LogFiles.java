@@ -0,0 +1,72 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Resolves caller-supplied log file names against the Tomcat log directory.
+ *
+ * <p>Applies the same containment rules as {@link TomcatLogDataSource#getFile(String)}: the name is
+ * resolved relative to {@code ${catalina.base}/logs}, and both the normalized and the symlink-free
+ * paths must stay inside that directory.
+ */
+public final class LogFiles {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogFiles.class);
+
+    private LogFiles() {
+        throw new AssertionError();
+    }
+
+    /**
+     * @return the canonical log directory, or {@code null} if {@code catalina.base} is not set or
+     * the directory does not exist
+     */
+    public static Path getRoot() {
+        final String logPath = TomcatLogDataSource.getTomcatLogPath();
+        if (logPath == null) {
+            return null;
+        }
+        try {
+            return Paths.get(logPath).toRealPath();
+        } catch (IOException e) {
+            LOGGER.warn("Cannot resolve Tomcat log directory {}", logPath, e);
+            return null;
+        }
+    }
+
+    /**
+     * Resolves a file name relative to the log directory.
+     *
+     * @param name a path relative to the log directory, such as {@code jahia.log} or {@code archive/catalina.out}
+     * @return the resolved regular file, or {@code null} if it does not exist or lies outside the log directory
+     */
+    public static Path resolve(String name) {
+        if (name == null || name.isEmpty()) {
+            return null;
+        }
+        final Path root = getRoot();
+        if (root == null) {
+            return null;
+        }
+        try {
+            final Path candidate = root.resolve(name).normalize();
+            // The normalized path is returned rather than the real one so that a rotated file
+            // replaced under the same name is still picked up by later reads
+            if (!candidate.startsWith(root) || !candidate.toRealPath().startsWith(root)) {
+                LOGGER.warn("Rejected path outside Tomcat log root: {}", name);
+                return null;
+            }
+            return Files.isRegularFile(candidate) ? candidate : null;
+        } catch (InvalidPathException | IOException e) {
+            LOGGER.debug("Cannot resolve log file {}", name, e);
+            return null;
+        }
+    }
+}
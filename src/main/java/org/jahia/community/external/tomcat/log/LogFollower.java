@@ -0,0 +1,127 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Follows one log file and fans the appended lines out to every subscriber.
+ *
+ * <p>The appended bytes are read once per poll whatever the number of subscribers. Rotation and
+ * truncation are detected by {@link LogTailer}; the follower then continues from the start of the
+ * new file and flags the event as a reset. Events are only queued on the subscriptions, which
+ * deliver them on their own threads, so a slow subscriber never holds up the follower.
+ */
+final class LogFollower {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogFollower.class);
+    // Bounds the bytes consumed by a single poll (16 MB) so one burst cannot starve other files
+    private static final int MAX_WINDOWS_PER_POLL = 64;
+
+    private final Path file;
+    private final List<LogStreamSubscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+    // Subscriptions about to be attached: the follower must not be dropped meanwhile
+    private final AtomicInteger pendingAttachments = new AtomicInteger();
+    // Guarded by this; null until the file is first read
+    private LogCursor cursor;
+    private boolean completed;
+
+    LogFollower(Path file) {
+        this.file = file;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Keeps the follower alive until the matching {@link #attach(LogStreamSubscription, LogCursor)},
+     * which may then read the file without holding the caller's locks.
+     */
+    void reserve() {
+        pendingAttachments.incrementAndGet();
+    }
+
+    /**
+     * Registers a subscription reserved with {@link #reserve()}, first queueing the lines it missed
+     * since {@code from}.
+     *
+     * @param subscription the subscription to register
+     * @param from         the cursor the subscriber resumes from, or {@code null} for live lines only
+     * @throws IOException if the file cannot be read
+     */
+    synchronized void attach(LogStreamSubscription<?> subscription, LogCursor from) throws IOException {
+        try {
+            if (completed) {
+                subscription.complete();
+                return;
+            }
+            if (cursor == null) {
+                // First subscription: fails here rather than in the polling thread if the file cannot be read
+                cursor = LogTailer.tail(file, 0).getCursor();
+            }
+            // Bring everyone up to date so the catch-up read below ends exactly where live events start
+            poll();
+            if (from != null && cursor != null && !from.equals(cursor)) {
+                final LogTailer.Chunk missed = LogTailer.readAfter(file, from, cursor.getOffset(), Integer.MAX_VALUE);
+                if (!missed.getLines().isEmpty() || missed.isReset()) {
+                    subscription.offer(new LogStreamEvent(missed));
+                }
+            }
+            subscriptions.add(subscription);
+        } finally {
+            pendingAttachments.decrementAndGet();
+        }
+    }
+
+    void detach(LogStreamSubscription<?> subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    boolean hasSubscriptions() {
+        return pendingAttachments.get() > 0 || subscriptions.stream().anyMatch(subscription -> !subscription.isCancelled());
+    }
+
+    /**
+     * Reads the lines appended since the last poll and queues them on every subscription.
+     */
+    synchronized void poll() {
+        subscriptions.removeIf(LogStreamSubscription::isCancelled);
+        try {
+            if (cursor == null) {
+                // Start at the current end of the file: only lines appended from now on are pushed
+                cursor = LogTailer.tail(file, 0).getCursor();
+                return;
+            }
+            for (int i = 0; i < MAX_WINDOWS_PER_POLL; i++) {
+                final LogTailer.Chunk chunk = LogTailer.readForward(file, cursor);
+                final boolean moved = chunk.getCursor() != null && !chunk.getCursor().equals(cursor);
+                cursor = chunk.getCursor();
+                if (!chunk.getLines().isEmpty() || chunk.isReset()) {
+                    final LogStreamEvent event = new LogStreamEvent(chunk);
+                    for (LogStreamSubscription<?> subscription : subscriptions) {
+                        subscription.offer(event);
+                    }
+                }
+                if (!moved) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Cannot follow {}", file, e);
+        }
+    }
+
+    synchronized void complete() {
+        completed = true;
+        for (LogStreamSubscription<?> subscription : subscriptions) {
+            subscription.complete();
+        }
+        subscriptions.clear();
+    }
+}
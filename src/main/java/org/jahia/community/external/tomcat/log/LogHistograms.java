@@ -0,0 +1,262 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Counts the entries of a log file per level over time.
+ *
+ * <p>Counts are kept per minute in a per-file {@link LevelHistogram}, updated on each query with
+ * the lines appended since the previous one: answering "how many errors in the last hour" reads
+ * the new bytes only, not the file. The counts of a file start over when it is rotated or
+ * truncated; the entries written before its last rotation are counted from its dated rotations,
+ * selected as {@link LogTimeRangeReader} selects them, which are only read once since they do not
+ * change. At most {@link #MAX_CACHED_FILES} histograms are kept, least recently used first out.
+ */
+public final class LogHistograms {
+
+    static final int MAX_CACHED_FILES = 32;
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogHistograms.class);
+    private static final int READ_BUFFER_BYTES = 1024 * 1024;
+    private static final String METRIC = "cache.histogram";
+
+    private static final Map<Path, LevelHistogram> HISTOGRAMS = new LinkedHashMap<Path, LevelHistogram>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, LevelHistogram> eldest) {
+            return size() > MAX_CACHED_FILES;
+        }
+    };
+
+    private LogHistograms() {
+        throw new AssertionError();
+    }
+
+    /**
+     * @param file          the file to count the entries of
+     * @param from          the start of the range in epoch milliseconds, inclusive
+     * @param to            the end of the range in epoch milliseconds, inclusive
+     * @param bucketMinutes the length of a bucket in minutes, at least 1
+     * @return the counts per bucket, buckets without entries left out, and the totals of the range,
+     * over at most {@link LevelHistogram#RETENTION_MINUTES} up to the last entry of the file
+     * @throws IOException if the file cannot be read or its directory cannot be listed
+     */
+    public static Result read(Path file, long from, long to, int bucketMinutes) throws IOException {
+        final LevelHistogram histogram = histogramFor(file, LogChannels.readAttributes(file));
+        final long bucketLength = Math.max(1, bucketMinutes);
+        final TreeMap<Long, long[]> buckets = new TreeMap<>();
+        final long[] totals = new long[LogEntryParser.LEVELS.length];
+        final long toMinute = Math.floorDiv(to, LevelHistogram.MINUTE_MILLIS);
+        final long fromMinute;
+        synchronized (histogram) {
+            update(file, histogram);
+            final long lastMinute = histogram.getMinuteCount() > 0 ? histogram.getLastMinute()
+                    : Math.floorDiv(System.currentTimeMillis(), LevelHistogram.MINUTE_MILLIS);
+            fromMinute = Math.max(Math.floorDiv(from, LevelHistogram.MINUTE_MILLIS), lastMinute - LevelHistogram.RETENTION_MINUTES);
+            addCounts(histogram, fromMinute, toMinute, bucketLength, buckets, totals);
+        }
+        for (Path rotation : LogTimeRangeReader.selectFiles(file, fromMinute * LevelHistogram.MINUTE_MILLIS, to)) {
+            if (rotation.equals(file)) {
+                continue;
+            }
+            try {
+                final BasicFileAttributes attributes = LogChannels.readAttributes(rotation);
+                final LevelHistogram rotated = histogramFor(rotation, attributes);
+                synchronized (rotated) {
+                    // Rotations are complete: spare inflating an archive again just to find nothing new
+                    if (rotated.getOffset() < attributes.size()) {
+                        update(rotation, rotated);
+                    }
+                    addCounts(rotated, fromMinute, toMinute, bucketLength, buckets, totals);
+                }
+            } catch (IOException e) {
+                // Same as between: one unreadable rotation does not hide the others
+                LOGGER.warn("Cannot count entries of log file {}", rotation, e);
+            }
+        }
+        final List<Bucket> result = new ArrayList<>(buckets.size());
+        for (Map.Entry<Long, long[]> bucket : buckets.entrySet()) {
+            result.add(new Bucket(bucket.getKey() * LevelHistogram.MINUTE_MILLIS, toMap(bucket.getValue())));
+        }
+        return new Result(result, toMap(totals));
+    }
+
+    private static void addCounts(LevelHistogram histogram, long fromMinute, long toMinute, long bucketLength,
+                                  TreeMap<Long, long[]> buckets, long[] totals) {
+        for (Map.Entry<Long, long[]> minute : histogram.minutes(fromMinute, toMinute).entrySet()) {
+            final long bucket = Math.floorDiv(minute.getKey(), bucketLength) * bucketLength;
+            final long[] counts = buckets.computeIfAbsent(bucket, key -> new long[LogEntryParser.LEVELS.length]);
+            for (int level = 0; level < counts.length; level++) {
+                counts[level] += minute.getValue()[level];
+                totals[level] += minute.getValue()[level];
+            }
+        }
+    }
+
+    private static LevelHistogram histogramFor(Path file, BasicFileAttributes attributes) {
+        synchronized (HISTOGRAMS) {
+            LevelHistogram histogram = HISTOGRAMS.get(file);
+            if (histogram == null || !histogram.isValidFor(attributes)) {
+                LogMetrics.cacheMiss(METRIC);
+                histogram = new LevelHistogram(LogCursor.fileId(attributes));
+                HISTOGRAMS.put(file, histogram);
+            } else {
+                LogMetrics.cacheHit(METRIC);
+            }
+            return histogram;
+        }
+    }
+
+    /**
+     * Counts the complete lines appended since the last update.
+     */
+    static void update(Path file, LevelHistogram histogram) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+        final byte[] bytes = buffer.array();
+        // Compressed files are inflated as they are read, without building an index
+        try (SeekableByteChannel channel = LogChannels.openSequential(file)) {
+            long position = histogram.getOffset();
+            channel.position(position);
+            while (true) {
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // fill the buffer up to the end of the file
+                }
+                final int length = buffer.position();
+                final boolean full = length == bytes.length;
+                int lineStart = 0;
+                for (int i = 0; i < length; i++) {
+                    if (bytes[i] != '\n') {
+                        continue;
+                    }
+                    if (histogram.isSkippingLine()) {
+                        histogram.setSkippingLine(false);
+                    } else {
+                        count(histogram, bytes, lineStart, i);
+                    }
+                    lineStart = i + 1;
+                }
+                if (lineStart == 0 && full) {
+                    // A line longer than the buffer: count it from its start, then skip the rest
+                    if (!histogram.isSkippingLine()) {
+                        count(histogram, bytes, 0, length);
+                        histogram.setSkippingLine(true);
+                    }
+                    lineStart = length;
+                }
+                position += lineStart;
+                histogram.setOffset(position);
+                if (!full) {
+                    // The end of the file was reached; a line still being written is counted once complete
+                    break;
+                }
+                // Keep the incomplete last line for the next read rather than reading it again
+                System.arraycopy(bytes, lineStart, bytes, 0, length - lineStart);
+                buffer.position(length - lineStart);
+            }
+        }
+        histogram.prune();
+    }
+
+    private static void count(LevelHistogram histogram, byte[] bytes, int from, int to) {
+        final long timestamp = LogTimestamps.parse(bytes, from, to);
+        if (timestamp == LogTimestamps.NONE) {
+            return;
+        }
+        final int level = LogEntryParser.levelIndex(bytes, from, to);
+        if (level >= 0) {
+            histogram.count(timestamp, level);
+        }
+    }
+
+    private static Map<String, Long> toMap(long[] counts) {
+        final Map<String, Long> map = new LinkedHashMap<>();
+        for (int level = 0; level < counts.length; level++) {
+            if (counts[level] > 0) {
+                map.put(LogEntryParser.LEVELS[level], counts[level]);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Entries counted per level in a time range.
+     */
+    public static final class Result {
+
+        private final List<Bucket> buckets;
+        private final Map<String, Long> totals;
+
+        Result(List<Bucket> buckets, Map<String, Long> totals) {
+            this.buckets = buckets;
+            this.totals = totals;
+        }
+
+        /**
+         * @return a result without any entry, for files that could not be read
+         */
+        public static Result empty() {
+            return new Result(Collections.emptyList(), Collections.emptyMap());
+        }
+
+        /**
+         * @return the buckets holding entries, oldest first
+         */
+        public List<Bucket> getBuckets() {
+            return buckets;
+        }
+
+        /**
+         * @return the number of entries of the range per level, most severe first
+         */
+        public Map<String, Long> getTotals() {
+            return totals;
+        }
+    }
+
+    /**
+     * Entries counted per level in a bucket of time.
+     */
+    public static final class Bucket {
+
+        private final long start;
+        private final Map<String, Long> counts;
+
+        Bucket(long start, Map<String, Long> counts) {
+            this.start = start;
+            this.counts = counts;
+        }
+
+        /**
+         * @return the start of the bucket in epoch milliseconds
+         */
+        public long getStart() {
+            return start;
+        }
+
+        /**
+         * @return the number of entries per level, most severe first
+         */
+        public Map<String, Long> getCounts() {
+            return counts;
+        }
+
+        public long getTotal() {
+            long total = 0;
+            for (long count : counts.values()) {
+                total += count;
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package org.jahia.community.external.tomcat.log;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tests raw UTF-8 line bytes against a literal or regular expression and an optional level,
+ * without decoding the line to a {@code String}.
+ *
+ * <p>Regular expressions run over a byte-per-char view of the line: ASCII behaves as usual and
+ * non-ASCII literals in the pattern match their UTF-8 encoding, but non-ASCII characters inside
+ * character classes are not supported.
+ *
+ * <p>Instances are not thread-safe; use {@link #copy()} to get one per thread.
+ *
+ * <p>A regular expression can backtrack for minutes on a single line. A matcher made with
+ * {@link #copy(AtomicBoolean)} gives up as soon as its flag is raised, by throwing a
+ * {@link CancellationException} out of {@link #matches(byte[], int, int)}.
+ */
+public final class LogLineMatcher {
+
+    // Levels are written right after the timestamp, well within the first bytes of a line
+    private static final int LEVEL_HEADER_BYTES = 64;
+    // A volatile read per character would slow every match down: the flag is read once per 4096
+    private static final int CANCEL_CHECK_MASK = 4096 - 1;
+
+    private final byte[] literal;
+    private final Pattern pattern;
+    private final boolean ignoreCase;
+    private final byte[] level;
+    private final Matcher matcher;
+    private final ByteCharSequence view;
+
+    private LogLineMatcher(byte[] literal, Pattern pattern, boolean ignoreCase, byte[] level, AtomicBoolean cancelled) {
+        this.literal = literal;
+        this.pattern = pattern;
+        this.ignoreCase = ignoreCase;
+        this.level = level;
+        this.view = pattern != null ? new ByteCharSequence(cancelled) : null;
+        this.matcher = pattern != null ? pattern.matcher(view) : null;
+    }
+
+    /**
+     * @param text       the text to look for; {@code null} or empty matches every line
+     * @param regex      whether {@code text} is a regular expression rather than a literal
+     * @param ignoreCase whether ASCII letters match regardless of case
+     * @param level      a level such as {@code ERROR} the line must carry, or {@code null}
+     * @return a new matcher
+     * @throws java.util.regex.PatternSyntaxException if {@code regex} is set and {@code text} is invalid
+     */
+    public static LogLineMatcher create(String text, boolean regex, boolean ignoreCase, String level) {
+        final byte[] levelBytes = level == null || level.isEmpty() ? null : level.toUpperCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII);
+        if (text == null || text.isEmpty()) {
+            return new LogLineMatcher(new byte[0], null, false, levelBytes, null);
+        }
+        final byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        if (regex) {
+            final String byteWise = new String(utf8, StandardCharsets.ISO_8859_1);
+            return new LogLineMatcher(null, Pattern.compile(byteWise, ignoreCase ? Pattern.CASE_INSENSITIVE : 0), ignoreCase, levelBytes, null);
+        }
+        if (ignoreCase) {
+            for (int i = 0; i < utf8.length; i++) {
+                utf8[i] = toLowerAscii(utf8[i]);
+            }
+        }
+        return new LogLineMatcher(utf8, null, ignoreCase, levelBytes, null);
+    }
+
+    /**
+     * @return an independent matcher with the same criteria
+     */
+    public LogLineMatcher copy() {
+        return new LogLineMatcher(literal, pattern, ignoreCase, level, null);
+    }
+
+    /**
+     * @param cancelled a flag that, once raised, makes a running regular expression stop
+     * @return an independent matcher with the same criteria, that stops when {@code cancelled} is set
+     */
+    LogLineMatcher copy(AtomicBoolean cancelled) {
+        return new LogLineMatcher(literal, pattern, ignoreCase, level, cancelled);
+    }
+
+    /**
+     * @return the level filter, or {@code null} if lines are not filtered by level
+     */
+    String getLevel() {
+        return level != null ? new String(level, StandardCharsets.US_ASCII) : null;
+    }
+
+    /**
+     * @param bytes the buffer holding the line
+     * @param from  the index of the first byte of the line
+     * @param to    the index right after the last byte of the line, excluding the line terminator
+     * @return whether the line matches
+     * @throws CancellationException if the matcher was made with {@link #copy(AtomicBoolean)} and
+     *                               its flag was raised while a regular expression was running
+     */
+    public boolean matches(byte[] bytes, int from, int to) {
+        if (level != null && !hasLevel(bytes, from, Math.min(to, from + LEVEL_HEADER_BYTES))) {
+            return false;
+        }
+        if (matcher != null) {
+            view.set(bytes, from, to);
+            matcher.reset(view);
+            return matcher.find();
+        }
+        return indexOf(bytes, from, to, literal, ignoreCase) >= 0;
+    }
+
+    private boolean hasLevel(byte[] bytes, int from, int to) {
+        int index = from;
+        while ((index = indexOf(bytes, index, to, level, false)) >= 0) {
+            final int end = index + level.length;
+            if ((index == from || !isLetter(bytes[index - 1])) && (end == to || !isLetter(bytes[end]))) {
+                return true;
+            }
+            index++;
+        }
+        return false;
+    }
+
+    private static int indexOf(byte[] bytes, int from, int to, byte[] target, boolean ignoreCase) {
+        if (target.length == 0) {
+            return from;
+        }
+        final byte first = target[0];
+        final int last = to - target.length;
+        for (int i = from; i <= last; i++) {
+            if ((ignoreCase ? toLowerAscii(bytes[i]) : bytes[i]) != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < target.length && (ignoreCase ? toLowerAscii(bytes[i + j]) : bytes[i + j]) == target[j]) {
+                j++;
+            }
+            if (j == target.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isLetter(byte b) {
+        return (b >= 'A' && b <= 'Z') || (b >= 'a' && b <= 'z');
+    }
+
+    private static byte toLowerAscii(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    /**
+     * Re-pointable, byte-per-char view of a buffer region, so a regex can run on a line without
+     * copying it.
+     */
+    private static final class ByteCharSequence implements CharSequence {
+
+        private final AtomicBoolean cancelled;
+        private byte[] bytes;
+        private int from;
+        private int length;
+        private int reads;
+
+        ByteCharSequence(AtomicBoolean cancelled) {
+            this.cancelled = cancelled;
+        }
+
+        void set(byte[] bytes, int from, int to) {
+            this.bytes = bytes;
+            this.from = from;
+            this.length = to - from;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (cancelled != null && (++reads & CANCEL_CHECK_MASK) == 0 && cancelled.get()) {
+                throw new CancellationException("Log line match cancelled");
+            }
+            return (char) (bytes[from + index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            final ByteCharSequence sub = new ByteCharSequence(cancelled);
+            sub.set(bytes, from + start, from + end);
+            return sub;
+        }
+
+        @Override
+        public String toString() {
+            return new String(bytes, from, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package org.jahia.community.external.tomcat.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Random access to the lines of log files through cached {@link LineIndex sparse line indexes}.
+ *
+ * <p>The first access to a file scans it once; later accesses only scan what was appended, then
+ * seek to the nearest checkpoint and skip at most one stride of lines. At most
+ * {@link #MAX_CACHED_FILES} indexes are kept, least recently used first out.
+ */
+public final class LogLineReader {
+
+    static final int MAX_CACHED_FILES = 32;
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+    private static final String METRIC = "cache.lineIndex";
+
+    private static final Map<Path, LineIndex> INDEXES = new LinkedHashMap<Path, LineIndex>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, LineIndex> eldest) {
+            return size() > MAX_CACHED_FILES;
+        }
+    };
+
+    private LogLineReader() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Reads a page of lines.
+     *
+     * @param file     the file to read
+     * @param fromLine the zero-based number of the first line to return
+     * @param count    the maximum number of lines to return
+     * @return the lines and the total number of lines in the file
+     * @throws IOException if the file cannot be read
+     */
+    public static Page readLines(Path file, long fromLine, int count) throws IOException {
+        while (true) {
+            final LineIndex index = getIndex(file);
+            synchronized (index) {
+                // Scanning goes through the file once: compressed files need no index for it
+                try (SeekableByteChannel channel = LogChannels.openSequential(file)) {
+                    final BasicFileAttributes attributes = LogChannels.readAttributes(file);
+                    if (!index.isValidFor(attributes)) {
+                        // Replaced or rewritten since the index was built: start over
+                        discard(file, index);
+                        continue;
+                    }
+                    index.update(channel, attributes);
+                }
+                final long total = index.getLineCount();
+                if (fromLine < 0 || fromLine >= total || count <= 0) {
+                    return new Page(Collections.emptyList(), total);
+                }
+                try (SeekableByteChannel channel = LogChannels.open(file)) {
+                    return new Page(read(channel, index, fromLine, count), total);
+                }
+            }
+        }
+    }
+
+    private static LineIndex getIndex(Path file) throws IOException {
+        synchronized (INDEXES) {
+            LineIndex index = INDEXES.get(file);
+            if (index == null) {
+                LogMetrics.cacheMiss(METRIC);
+                index = new LineIndex(LogCursor.fileId(LogChannels.readAttributes(file)));
+                INDEXES.put(file, index);
+            } else {
+                LogMetrics.cacheHit(METRIC);
+            }
+            return index;
+        }
+    }
+
+    private static void discard(Path file, LineIndex index) {
+        synchronized (INDEXES) {
+            INDEXES.remove(file, index);
+        }
+    }
+
+    private static List<String> read(SeekableByteChannel channel, LineIndex index, long fromLine, int count) throws IOException {
+        final long end = index.getScannedSize();
+        long line = index.checkpointLine(fromLine);
+        long position = index.checkpointOffset(fromLine);
+        final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+        final byte[] bytes = buffer.array();
+        final List<String> lines = new ArrayList<>(Math.min(count, 1024));
+        // Holds a line that spans two buffers; only used for requested lines
+        final ByteArrayBuilder pending = new ByteArrayBuilder();
+        channel.position(position);
+        while (position < end && lines.size() < count) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            final int read = channel.read(buffer);
+            if (read <= 0) {
+                break;
+            }
+            int lineStart = 0;
+            for (int i = 0; i < read && lines.size() < count; i++) {
+                if (bytes[i] != '\n') {
+                    continue;
+                }
+                if (line >= fromLine) {
+                    pending.append(bytes, lineStart, i);
+                    lines.add(pending.toLine());
+                }
+                pending.reset();
+                line++;
+                lineStart = i + 1;
+            }
+            if (line >= fromLine && lines.size() < count) {
+                pending.append(bytes, lineStart, read);
+            }
+            position += read;
+        }
+        if (pending.length() > 0 && lines.size() < count) {
+            // Last line of the file, not terminated yet
+            lines.add(pending.toLine());
+        }
+        return lines;
+    }
+
+    /**
+     * A page of lines and the number of lines in the file when it was read.
+     */
+    public static final class Page {
+
+        private final List<String> lines;
+        private final long totalLines;
+
+        Page(List<String> lines, long totalLines) {
+            this.lines = lines;
+            this.totalLines = totalLines;
+        }
+
+        public List<String> getLines() {
+            return lines;
+        }
+
+        public long getTotalLines() {
+            return totalLines;
+        }
+    }
+}
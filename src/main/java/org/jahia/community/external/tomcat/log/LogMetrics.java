@@ -0,0 +1,178 @@
+package org.jahia.community.external.tomcat.log;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runtime counters of the data source, binary and query operations, exposed over JMX by
+ * {@link TomcatLogMetrics}.
+ *
+ * <p>Each operation counts its calls, failures, bytes read and cache hits and misses, and records
+ * its latencies in a histogram of power-of-two nanosecond buckets: percentiles are reported as the
+ * upper bound of their bucket, so within a factor of two, at the cost of a few uncontended atomic
+ * increments per call.
+ */
+public final class LogMetrics {
+
+    private static final int LATENCY_BUCKETS = 64;
+
+    private static final Map<String, Operation> OPERATIONS = new ConcurrentHashMap<>();
+
+    private LogMetrics() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Starts timing a call, to be used in a try-with-resources block:
+     * <pre>{@code
+     * try (LogMetrics.Timer timer = LogMetrics.time("dataSource.getChildren")) {
+     *     return timer.succeeded(doGetChildren(path));
+     * }
+     * }</pre>
+     * A call closed without {@link Timer#succeeded(Object)} counts as an error.
+     *
+     * @param operation the name of the operation
+     * @return the running timer
+     */
+    public static Timer time(String operation) {
+        return new Timer(operation(operation));
+    }
+
+    /**
+     * Counts a lookup answered from an in-memory cache.
+     */
+    public static void cacheHit(String operation) {
+        operation(operation).cacheHits.increment();
+    }
+
+    /**
+     * Counts a lookup that had to read the disk or rebuild its cached state.
+     */
+    public static void cacheMiss(String operation) {
+        operation(operation).cacheMisses.increment();
+    }
+
+    /**
+     * @return the statistics of every operation counted since the start or the last reset, by name
+     */
+    public static Map<String, OperationStatistics> snapshot() {
+        final Map<String, OperationStatistics> statistics = new TreeMap<>();
+        OPERATIONS.forEach((name, operation) -> statistics.put(name, operation.statistics()));
+        return statistics;
+    }
+
+    /**
+     * Drops every counter.
+     */
+    public static void reset() {
+        OPERATIONS.clear();
+    }
+
+    private static Operation operation(String name) {
+        return OPERATIONS.computeIfAbsent(name, key -> new Operation());
+    }
+
+    /**
+     * Times one call of an operation.
+     */
+    public static final class Timer implements AutoCloseable {
+
+        private final Operation operation;
+        private final long start = System.nanoTime();
+        private long bytes;
+        private boolean succeeded;
+
+        private Timer(Operation operation) {
+            this.operation = operation;
+        }
+
+        /**
+         * Marks the call as successful.
+         *
+         * @param result the result of the call
+         * @param <T>    the type of the result
+         * @return {@code result}
+         */
+        public <T> T succeeded(T result) {
+            succeeded = true;
+            return result;
+        }
+
+        /**
+         * @param count bytes read by the call, ignored if negative
+         */
+        public void addBytes(long count) {
+            if (count > 0) {
+                bytes += count;
+            }
+        }
+
+        @Override
+        public void close() {
+            operation.record(System.nanoTime() - start, bytes, succeeded);
+        }
+    }
+
+    private static final class Operation {
+
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder bytesRead = new LongAdder();
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder cacheMisses = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        // Bucket i counts the calls of less than 2^i ns and at least 2^(i-1) ns
+        private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_BUCKETS);
+
+        void record(long nanos, long bytes, boolean succeeded) {
+            final long elapsed = Math.max(0, nanos);
+            calls.increment();
+            if (!succeeded) {
+                errors.increment();
+            }
+            if (bytes > 0) {
+                bytesRead.add(bytes);
+            }
+            totalNanos.add(elapsed);
+            maxNanos.accumulate(elapsed);
+            latencies.incrementAndGet(Math.min(LATENCY_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(elapsed)));
+        }
+
+        OperationStatistics statistics() {
+            final long[] counts = new long[LATENCY_BUCKETS];
+            long timed = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = latencies.get(i);
+                timed += counts[i];
+            }
+            final double mean = timed > 0 ? totalNanos.sum() / (double) timed / 1000 : 0;
+            final double max = maxNanos.get() / 1000.0;
+            // A bucket bound can exceed the slowest call it holds
+            return new OperationStatistics(calls.sum(), errors.sum(), bytesRead.sum(), cacheHits.sum(), cacheMisses.sum(),
+                    mean, Math.min(max, percentile(counts, timed, 0.5)), Math.min(max, percentile(counts, timed, 0.99)), max);
+        }
+
+        /**
+         * @return the upper bound in microseconds of the bucket holding the percentile
+         */
+        private static double percentile(long[] counts, long total, double quantile) {
+            if (total == 0) {
+                return 0;
+            }
+            final long rank = (long) Math.ceil(total * quantile);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.pow(2, i) / 1000;
+                }
+            }
+            return Math.pow(2, counts.length - 1) / 1000;
+        }
+    }
+}
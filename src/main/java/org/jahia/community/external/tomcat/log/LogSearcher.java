@@ -0,0 +1,385 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Searches every file under the log directory for lines accepted by a {@link LogLineMatcher}.
+ *
+ * <p>Files are scanned in parallel, one task per file on an executor shared by all searches,
+ * through fixed-size buffers: lines that do not match are tested on the raw bytes and never
+ * decoded. The search stops as soon as the result cap or the time budget is reached, including in
+ * the middle of a regular expression; the result then reports itself as truncated, and holds the
+ * matches found so far.
+ */
+public final class LogSearcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogSearcher.class);
+    private static final int BUFFER_BYTES = 1024 * 1024;
+    private static final int MAX_CONTEXT_LINES = 10;
+    // Enough to hold the context lines around a match in all but pathological files
+    private static final int CONTEXT_WINDOW_BYTES = 64 * 1024;
+    // Time left to the running scans to return their partial matches once the budget is spent
+    private static final long CANCEL_GRACE_MS = 1000;
+
+    private LogSearcher() {
+        throw new AssertionError();
+    }
+
+    /**
+     * @param root         the log directory
+     * @param glob         a glob on the path relative to {@code root}, such as {@code catalina*} or
+     *                     {@code archive/**}; {@code null} searches every file
+     * @param matcher      the line criteria
+     * @param contextLines the number of lines to return before and after each match
+     * @param maxResults   the number of matches after which the search stops
+     * @param timeoutMs    the time budget of the search
+     * @param executor     runs the scans of the files, typically the one of {@link TomcatLogSearchService}
+     * @return the matches, ordered by file then line
+     * @throws IOException if the log directory cannot be listed
+     */
+    public static Result search(Path root, String glob, LogLineMatcher matcher, int contextLines, int maxResults, long timeoutMs,
+                                ExecutorService executor) throws IOException {
+        final List<Path> files = listFiles(root, glob);
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final AtomicInteger found = new AtomicInteger();
+        final int context = Math.max(0, Math.min(contextLines, MAX_CONTEXT_LINES));
+        final List<Match> matches = new ArrayList<>();
+        boolean truncated = false;
+        try {
+            final List<Future<List<Match>>> futures = new ArrayList<>(files.size());
+            for (Path file : files) {
+                final String name = root.relativize(file).toString().replace('\\', '/');
+                try {
+                    futures.add(executor.submit(() -> scan(file, name, matcher.copy(cancelled), context, maxResults, found, cancelled)));
+                } catch (RejectedExecutionException e) {
+                    LOGGER.warn("Too many log files being searched at once; {} and the files after it are left out", name);
+                    truncated = true;
+                    break;
+                }
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            boolean expired = false;
+            for (Future<List<Match>> future : futures) {
+                try {
+                    List<Match> fileMatches;
+                    try {
+                        fileMatches = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    } catch (TimeoutException e) {
+                        if (expired) {
+                            throw e;
+                        }
+                        // Out of time: the running scans stop at their next line, and their partial
+                        // matches, already counted against maxResults, are kept
+                        expired = true;
+                        truncated = true;
+                        cancelled.set(true);
+                        deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CANCEL_GRACE_MS);
+                        fileMatches = future.get(CANCEL_GRACE_MS, TimeUnit.MILLISECONDS);
+                    }
+                    matches.addAll(fileMatches);
+                } catch (TimeoutException e) {
+                    LOGGER.debug("Log file scan did not stop within {} ms; its matches are left out", CANCEL_GRACE_MS);
+                } catch (ExecutionException e) {
+                    LOGGER.warn("Cannot search log file", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // Whatever the outcome, no scan of this search keeps a worker busy once it returns
+            cancelled.set(true);
+        }
+        matches.sort(Comparator.comparing(Match::getFile).thenComparingLong(Match::getLine));
+        // Reaching the cap is not enough: only a match turned away means results are missing
+        if (found.get() > maxResults) {
+            truncated = true;
+        }
+        return new Result(matches, files.size(), truncated);
+    }
+
+    static List<Path> listFiles(Path root, String glob) throws IOException {
+        // A glob without '/' is matched against file names, anywhere in the tree
+        final boolean onName = glob != null && glob.indexOf('/') < 0;
+        final PathMatcher pathMatcher = glob == null || glob.isEmpty() ? null : FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        try (Stream<Path> walk = Files.walk(root)) {
+            return walk.filter(Files::isRegularFile)
+                    .filter(file -> pathMatcher == null || pathMatcher.matches(onName ? file.getFileName() : root.relativize(file)))
+                    .filter(file -> isContained(root, file))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static boolean isContained(Path root, Path file) {
+        try {
+            // Same rule as TomcatLogDataSource: symlinks must not expose files outside the log root
+            return file.toRealPath().startsWith(root);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static List<Match> scan(Path file, String name, LogLineMatcher matcher, int context, int maxResults,
+                                    AtomicInteger found, AtomicBoolean cancelled) throws IOException {
+        final List<Match> matches = new ArrayList<>();
+        final byte[] bytes = new byte[BUFFER_BYTES];
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        // Start offsets of the last lines, to find where the context before a match starts
+        final long[] recentStarts = new long[context + 1];
+        // The bytes just before the buffer, so the context before a match never needs to read back
+        final byte[] previous = new byte[context > 0 ? CONTEXT_WINDOW_BYTES : 0];
+        int previousLength = 0;
+        final List<Match> awaitingContext = new ArrayList<>();
+        // Compressed files are inflated as they are scanned, without building an index
+        try (SeekableByteChannel channel = LogChannels.openSequential(file)) {
+            long bufferOffset = 0;
+            long line = 0;
+            // Within a line longer than the buffer, whose first bytes were already tested
+            boolean skippingLine = false;
+            boolean eof = false;
+            while (!eof && !cancelled.get()) {
+                final int read = channel.read(buffer);
+                eof = read < 0;
+                final int filled = buffer.position();
+                int lineStart = 0;
+                while (!cancelled.get()) {
+                    int lineEnd = indexOf(bytes, lineStart, filled, (byte) '\n');
+                    if (skippingLine) {
+                        if (lineEnd < 0) {
+                            lineStart = filled;
+                            break;
+                        }
+                        // The end of the long line: it counts as a single line
+                        skippingLine = false;
+                        line++;
+                        lineStart = lineEnd + 1;
+                        continue;
+                    }
+                    boolean longLine = false;
+                    if (lineEnd < 0) {
+                        if (eof && lineStart < filled) {
+                            lineEnd = filled;
+                        } else if (lineStart == 0 && filled == bytes.length) {
+                            // A line longer than the buffer: test its first bytes, then skip to its end
+                            lineEnd = filled;
+                            longLine = true;
+                        } else {
+                            break;
+                        }
+                    }
+                    final int contentEnd = lineEnd > lineStart && bytes[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+                    if (!awaitingContext.isEmpty()) {
+                        final String text = decode(bytes, lineStart, contentEnd);
+                        for (Match match : awaitingContext) {
+                            match.after.add(text);
+                        }
+                        awaitingContext.removeIf(match -> match.after.size() >= context);
+                    }
+                    recentStarts[(int) (line % recentStarts.length)] = bufferOffset + lineStart;
+                    final boolean matched;
+                    try {
+                        matched = matcher.matches(bytes, lineStart, contentEnd);
+                    } catch (CancellationException e) {
+                        // The budget ran out in the middle of a regular expression
+                        return matches;
+                    }
+                    if (matched) {
+                        if (found.incrementAndGet() > maxResults) {
+                            cancelled.set(true);
+                            break;
+                        }
+                        final Match match = new Match(name, line, bufferOffset + lineStart, decode(bytes, lineStart, contentEnd));
+                        if (context > 0) {
+                            match.before.addAll(readBefore(bytes, bufferOffset, previous, previousLength, recentStarts, line, context,
+                                    bufferOffset + lineStart));
+                            awaitingContext.add(match);
+                        }
+                        matches.add(match);
+                    }
+                    if (longLine) {
+                        skippingLine = true;
+                        lineStart = filled;
+                        break;
+                    }
+                    line++;
+                    lineStart = lineEnd + 1;
+                    if (lineStart > filled) {
+                        lineStart = filled;
+                        break;
+                    }
+                }
+                previousLength = keepLast(previous, previousLength, bytes, lineStart);
+                // Keep the incomplete last line for the next read
+                System.arraycopy(bytes, lineStart, bytes, 0, filled - lineStart);
+                buffer.position(filled - lineStart);
+                bufferOffset += lineStart;
+            }
+        }
+        return matches;
+    }
+
+    private static List<String> readBefore(byte[] bytes, long bufferOffset, byte[] previous, int previousLength,
+                                           long[] recentStarts, long line, int context, long lineOffset) {
+        final int count = (int) Math.min(line, context);
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        final long from = Math.max(recentStarts[(int) ((line - count) % recentStarts.length)],
+                Math.max(lineOffset - CONTEXT_WINDOW_BYTES, bufferOffset - previousLength));
+        final byte[] window = new byte[(int) (lineOffset - from)];
+        // The window starts either in the bytes before the buffer or in the buffer itself
+        final int fromPrevious = (int) Math.max(0, bufferOffset - from);
+        System.arraycopy(previous, previousLength - fromPrevious, window, 0, fromPrevious);
+        System.arraycopy(bytes, (int) Math.max(0, from - bufferOffset), window, fromPrevious, window.length - fromPrevious);
+        final String text = new String(window, StandardCharsets.UTF_8);
+        final List<String> lines = new ArrayList<>(List.of(text.split("\r?\n", -1)));
+        // The window ends with the terminator of the line before the match
+        lines.remove(lines.size() - 1);
+        return lines.size() > count ? lines.subList(lines.size() - count, lines.size()) : lines;
+    }
+
+    /**
+     * Appends the first {@code count} bytes of the buffer to the window, keeping its last bytes.
+     *
+     * @return the new length of the window
+     */
+    private static int keepLast(byte[] window, int length, byte[] bytes, int count) {
+        if (count >= window.length) {
+            System.arraycopy(bytes, count - window.length, window, 0, window.length);
+            return window.length;
+        }
+        final int kept = Math.min(length, window.length - count);
+        System.arraycopy(window, length - kept, window, 0, kept);
+        System.arraycopy(bytes, 0, window, kept, count);
+        return kept + count;
+    }
+
+    private static int indexOf(byte[] bytes, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String decode(byte[] bytes, int from, int to) {
+        return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A matching line.
+     */
+    public static final class Match {
+
+        private final String file;
+        private final long line;
+        private final long offset;
+        private final String text;
+        private final List<String> before = new ArrayList<>();
+        private final List<String> after = new ArrayList<>();
+
+        Match(String file, long line, long offset, String text) {
+            this.file = file;
+            this.line = line;
+            this.offset = offset;
+            this.text = text;
+        }
+
+        /**
+         * @return the path of the file relative to the log directory
+         */
+        public String getFile() {
+            return file;
+        }
+
+        /**
+         * @return the zero-based line number, usable with {@link LogLineReader#readLines(Path, long, int)}
+         */
+        public long getLine() {
+            return line;
+        }
+
+        /**
+         * @return the byte offset of the start of the line
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public List<String> getBefore() {
+            return before;
+        }
+
+        public List<String> getAfter() {
+            return after;
+        }
+    }
+
+    /**
+     * Matches of a search and whether it stopped early.
+     */
+    public static final class Result {
+
+        private final List<Match> matches;
+        private final int filesSearched;
+        private final boolean truncated;
+
+        Result(List<Match> matches, int filesSearched, boolean truncated) {
+            this.matches = matches;
+            this.filesSearched = filesSearched;
+            this.truncated = truncated;
+        }
+
+        /**
+         * @return a result without any match, for searches that could not run
+         */
+        public static Result empty() {
+            return new Result(Collections.emptyList(), 0, false);
+        }
+
+        public List<Match> getMatches() {
+            return matches;
+        }
+
+        public int getFilesSearched() {
+            return filesSearched;
+        }
+
+        /**
+         * @return {@code true} if the result cap or the time budget was reached
+         */
+        public boolean isTruncated() {
+            return truncated;
+        }
+    }
+}
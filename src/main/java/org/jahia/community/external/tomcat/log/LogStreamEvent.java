@@ -0,0 +1,54 @@
+package org.jahia.community.external.tomcat.log;
+
+import java.util.List;
+
+/**
+ * Lines pushed to the subscribers of a followed log file.
+ */
+public final class LogStreamEvent {
+
+    private final List<String> lines;
+    private final LogCursor cursor;
+    private final boolean reset;
+    private final int dropped;
+
+    LogStreamEvent(List<String> lines, LogCursor cursor, boolean reset, int dropped) {
+        this.lines = lines;
+        this.cursor = cursor;
+        this.reset = reset;
+        this.dropped = dropped;
+    }
+
+    LogStreamEvent(LogTailer.Chunk chunk) {
+        this(chunk.getLines(), chunk.getCursor(), chunk.isReset(), 0);
+    }
+
+    LogStreamEvent withDropped(int droppedLines) {
+        return droppedLines == 0 ? this : new LogStreamEvent(lines, cursor, reset, droppedLines);
+    }
+
+    public List<String> getLines() {
+        return lines;
+    }
+
+    /**
+     * @return the position right after the last line, usable to resume with {@link LogTailer}
+     */
+    public LogCursor getCursor() {
+        return cursor;
+    }
+
+    /**
+     * @return {@code true} if the lines do not follow the previous event (rotation or truncation)
+     */
+    public boolean isReset() {
+        return reset;
+    }
+
+    /**
+     * @return the number of lines discarded before this event because the subscriber did not keep up
+     */
+    public int getDropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,169 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Bounded, drop-oldest buffer between a {@link LogFollower} and one subscriber.
+ *
+ * <p>The follower only queues events; they are delivered to the subscriber on the delivery
+ * executor, one task at a time per subscription. The follower therefore never blocks on a slow
+ * subscriber: when the buffer is full the oldest event is discarded and its line count is reported
+ * through {@link LogStreamEvent#getDropped()} on the next delivered event. Errors and completion
+ * go through the same delivery loop as the events, so the subscriber is never signalled from two
+ * threads at once.
+ */
+final class LogStreamSubscription<T> implements Subscription {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogStreamSubscription.class);
+
+    private final Subscriber<? super T> subscriber;
+    private final Function<LogStreamEvent, T> mapper;
+    private final int capacity;
+    private final Consumer<LogStreamSubscription<?>> onCancel;
+    private final Executor executor;
+    private final ArrayDeque<LogStreamEvent> buffer = new ArrayDeque<>();
+    // Serializes deliveries: only the caller that moves it from 0 schedules a drain
+    private final AtomicInteger wip = new AtomicInteger();
+    private long requested;
+    private int dropped;
+    private boolean cancelled;
+    private boolean completed;
+    private Throwable error;
+
+    LogStreamSubscription(Subscriber<? super T> subscriber, Function<LogStreamEvent, T> mapper, int capacity,
+                          Consumer<LogStreamSubscription<?>> onCancel, Executor executor) {
+        this.subscriber = subscriber;
+        this.mapper = mapper;
+        this.capacity = capacity;
+        this.onCancel = onCancel;
+        this.executor = executor;
+    }
+
+    void offer(LogStreamEvent event) {
+        synchronized (this) {
+            if (cancelled || completed || error != null) {
+                return;
+            }
+            if (buffer.size() == capacity) {
+                dropped += buffer.pollFirst().getLines().size();
+            }
+            buffer.addLast(event);
+        }
+        drain();
+    }
+
+    void complete() {
+        synchronized (this) {
+            completed = true;
+        }
+        drain();
+    }
+
+    /**
+     * Stops the subscription with an error, signalled once the event being delivered, if any, was.
+     *
+     * @param failure the error passed to the subscriber
+     */
+    void fail(Throwable failure) {
+        synchronized (this) {
+            if (cancelled || error != null) {
+                return;
+            }
+            error = failure;
+            buffer.clear();
+        }
+        onCancel.accept(this);
+        drain();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            fail(new IllegalArgumentException("Requested amount must be positive, got " + n));
+            return;
+        }
+        synchronized (this) {
+            requested = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+        }
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            buffer.clear();
+        }
+        onCancel.accept(this);
+    }
+
+    synchronized boolean isCancelled() {
+        return cancelled || error != null;
+    }
+
+    private synchronized LogStreamEvent next() {
+        if (cancelled || error != null || requested == 0 || buffer.isEmpty()) {
+            return null;
+        }
+        final LogStreamEvent event = buffer.pollFirst().withDropped(dropped);
+        dropped = 0;
+        if (requested != Long.MAX_VALUE) {
+            requested--;
+        }
+        return event;
+    }
+
+    // The terminal signal is sent once: an error at once, completion after every buffered event
+    private synchronized boolean terminate() {
+        if (cancelled || error == null && (!completed || !buffer.isEmpty())) {
+            return false;
+        }
+        cancelled = true;
+        return true;
+    }
+
+    private synchronized Throwable getError() {
+        return error;
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() == 0) {
+            executor.execute(this::deliver);
+        }
+    }
+
+    private void deliver() {
+        try {
+            do {
+                LogStreamEvent event;
+                while ((event = next()) != null) {
+                    subscriber.onNext(mapper.apply(event));
+                }
+                if (terminate()) {
+                    final Throwable failure = getError();
+                    if (failure != null) {
+                        subscriber.onError(failure);
+                    } else {
+                        subscriber.onComplete();
+                    }
+                }
+            } while (wip.decrementAndGet() != 0);
+        } catch (RuntimeException e) {
+            // Subscribers must not throw: stop delivering to this one, the others are not affected
+            LOGGER.warn("Log stream subscriber failed; cancelling its subscription", e);
+            cancel();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package org.jahia.community.external.tomcat.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads complete lines from the end of a log file, either as a bounded tail or incrementally
+ * from a {@link LogCursor}.
+ *
+ * <p>Only complete lines (terminated by {@code \n}) are returned; a line still being written stays
+ * behind the returned cursor and is delivered by the next call once it is complete. A steady-state
+ * incremental read therefore costs one {@code stat} plus the newly appended bytes.
+ */
+public final class LogTailer {
+
+    // 256 KB is ample for 200 typical log lines (~200 bytes each) and bounds a single read when a
+    // client falls far behind or starts from scratch
+    public static final int WINDOW_BYTES = 256 * 1024;
+
+    private LogTailer() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Returns the last complete lines of a file.
+     *
+     * @param file     the file to read
+     * @param maxLines the maximum number of lines to return
+     * @return the lines in chronological order and the cursor positioned right after them
+     * @throws IOException if the file cannot be read
+     */
+    public static Chunk tail(Path file, int maxLines) throws IOException {
+        return readAfter(file, null, maxLines);
+    }
+
+    /**
+     * Returns the complete lines appended to a file since {@code cursor}.
+     *
+     * <p>If the cursor was taken on another file (rotation), points past the end of the file
+     * (truncation) or lags more than {@link #WINDOW_BYTES} behind, the chunk is flagged as a reset:
+     * the caller should discard what it displayed so far and replace it with the returned lines.
+     * Otherwise, when more than {@code maxLines} lines were appended, the first ones are returned
+     * and the cursor stops after them, so the next call continues where this one ended.
+     *
+     * @param file     the file to read
+     * @param cursor   the position returned by a previous call, or {@code null} to start with a tail
+     * @param maxLines the maximum number of lines to return
+     * @return the new lines and the cursor to pass on the next call
+     * @throws IOException if the file cannot be read
+     */
+    public static Chunk readAfter(Path file, LogCursor cursor, int maxLines) throws IOException {
+        return readAfter(file, cursor, Long.MAX_VALUE, maxLines);
+    }
+
+    /**
+     * Same as {@link #readAfter(Path, LogCursor, int)} but never reads past {@code limit}.
+     *
+     * @param file     the file to read
+     * @param cursor   the position returned by a previous call, or {@code null} to start with a tail
+     * @param limit    the offset to stop at, used to catch up to a position another reader reached
+     * @param maxLines the maximum number of lines to return
+     * @return the new lines and the cursor to pass on the next call
+     * @throws IOException if the file cannot be read
+     */
+    static Chunk readAfter(Path file, LogCursor cursor, long limit, int maxLines) throws IOException {
+        final BasicFileAttributes attributes;
+        try {
+            attributes = LogChannels.readAttributes(file);
+        } catch (NoSuchFileException e) {
+            // Between the rename and the creation of a new file during rotation: nothing to read yet
+            return new Chunk(Collections.emptyList(), cursor, false);
+        }
+        final String fileId = LogCursor.fileId(attributes);
+        final long end = Math.min(attributes.size(), limit);
+        if (cursor != null && fileId.equals(cursor.getFileId()) && cursor.getOffset() <= attributes.size()) {
+            if (cursor.getOffset() >= end) {
+                return new Chunk(Collections.emptyList(), cursor, false);
+            }
+            return readRange(file, fileId, cursor.getOffset(), end, maxLines, false);
+        }
+        return readRange(file, fileId, 0, end, maxLines, true);
+    }
+
+    /**
+     * Returns the complete lines following {@code cursor}, reading at most {@link #WINDOW_BYTES}
+     * forward and never skipping ahead, so that repeated calls consume the whole file in order.
+     *
+     * <p>On rotation or truncation the new content is read from its first byte and the chunk is
+     * flagged as a reset.
+     *
+     * @param file   the file to read
+     * @param cursor the position returned by a previous call
+     * @return the next lines and the cursor to pass on the next call
+     * @throws IOException if the file cannot be read
+     */
+    static Chunk readForward(Path file, LogCursor cursor) throws IOException {
+        final BasicFileAttributes attributes;
+        try {
+            attributes = LogChannels.readAttributes(file);
+        } catch (NoSuchFileException e) {
+            return new Chunk(Collections.emptyList(), cursor, false);
+        }
+        final String fileId = LogCursor.fileId(attributes);
+        final boolean sameFile = cursor != null && fileId.equals(cursor.getFileId()) && cursor.getOffset() <= attributes.size();
+        final long from = sameFile ? cursor.getOffset() : 0;
+        final long end = Math.min(attributes.size(), from + WINDOW_BYTES);
+        if (sameFile && from >= end) {
+            return new Chunk(Collections.emptyList(), cursor, false);
+        }
+        return readRange(file, fileId, from, end, Integer.MAX_VALUE, !sameFile);
+    }
+
+    private static Chunk readRange(Path file, String fileId, long from, long end, int maxLines, boolean reset) throws IOException {
+        final long start = Math.max(from, end - WINDOW_BYTES);
+        if (start == end) {
+            return new Chunk(Collections.emptyList(), new LogCursor(fileId, start), reset);
+        }
+        // Read one extra byte before a window that does not start at the cursor: it tells whether
+        // the window starts on a line boundary
+        final boolean alignedStart = start == from;
+        final long readFrom = alignedStart ? start : start - 1;
+        final ByteBuffer buffer = ByteBuffer.allocate((int) (end - readFrom));
+        try (SeekableByteChannel channel = LogChannels.open(file)) {
+            channel.position(readFrom);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the window is full or the file was truncated under us
+            }
+        }
+        final byte[] bytes = buffer.array();
+        final int limit = buffer.position();
+        int pos = 0;
+        if (!alignedStart) {
+            // When we start mid-file the first entry is a partial line — skip it
+            final int newline = indexOf(bytes, 0, limit, (byte) '\n');
+            pos = newline >= 0 ? newline + 1 : limit;
+        }
+        final boolean skipped = start > from;
+        // Continuing from the cursor, the lines beyond maxLines are left behind the returned cursor
+        // for the next call; otherwise the last maxLines are kept, as a tail
+        final boolean continuing = !reset && !skipped;
+        final List<String> lines = new ArrayList<>();
+        int lineStart = pos;
+        for (int i = pos; i < limit && !(continuing && lines.size() >= maxLines); i++) {
+            if (bytes[i] == '\n') {
+                lines.add(decodeLine(bytes, lineStart, i));
+                lineStart = i + 1;
+            }
+        }
+        if (lineStart == pos && limit - pos >= WINDOW_BYTES) {
+            // A single line longer than the window: hand it out as is rather than never advancing
+            lines.add(decodeLine(bytes, pos, limit));
+            lineStart = limit;
+        }
+        final long nextOffset = readFrom + lineStart;
+        final List<String> result = lines.size() > maxLines ? lines.subList(lines.size() - maxLines, lines.size()) : lines;
+        return new Chunk(result, new LogCursor(fileId, nextOffset), reset || skipped);
+    }
+
+    private static int indexOf(byte[] bytes, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String decodeLine(byte[] bytes, int from, int to) {
+        final int end = to > from && bytes[to - 1] == '\r' ? to - 1 : to;
+        return new String(bytes, from, end - from, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A batch of lines read from a log file and the cursor positioned right after them.
+     */
+    public static final class Chunk {
+
+        private final List<String> lines;
+        private final LogCursor cursor;
+        private final boolean reset;
+
+        Chunk(List<String> lines, LogCursor cursor, boolean reset) {
+            this.lines = lines;
+            this.cursor = cursor;
+            this.reset = reset;
+        }
+
+        public List<String> getLines() {
+            return lines;
+        }
+
+        public LogCursor getCursor() {
+            return cursor;
+        }
+
+        /**
+         * @return {@code true} if the lines do not directly follow the previous cursor
+         */
+        public boolean isReset() {
+            return reset;
+        }
+    }
+}
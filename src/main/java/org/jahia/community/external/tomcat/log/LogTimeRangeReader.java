@@ -0,0 +1,414 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads the lines of a log file written between two instants.
+ *
+ * <p>Log lines are appended in time order, so the first line of the range is found by
+ * binary-searching the file: each probe reads a few KB at an offset and parses the first line
+ * timestamp found there. Probed timestamps are kept in a per-file {@link TimeIndex} to narrow
+ * later searches; at most {@link #MAX_CACHED_FILES} indexes are kept, least recently used first out.
+ *
+ * <p>Lines without a timestamp, such as stack traces, belong to the entry they follow.
+ */
+public final class LogTimeRangeReader {
+
+    static final int MAX_CACHED_FILES = 32;
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogTimeRangeReader.class);
+    private static final int PROBE_BYTES = 4 * 1024;
+    // Below this the range is read sequentially: probing would not read less
+    private static final int LINEAR_SCAN_BYTES = 16 * 1024;
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+    private static final String METRIC = "cache.timeIndex";
+    private static final String DATE_REGEX = "(\\d{4})-(\\d{2})-(\\d{2})";
+    private static final Pattern FILE_DATE = Pattern.compile(DATE_REGEX);
+    private static final String GZIP_SUFFIX = ".gz";
+
+    private static final Map<Path, TimeIndex> INDEXES = new LinkedHashMap<Path, TimeIndex>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, TimeIndex> eldest) {
+            return size() > MAX_CACHED_FILES;
+        }
+    };
+
+    private LogTimeRangeReader() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Reads the lines written between two instants, from the file and its rotated siblings.
+     *
+     * @param file     the log file
+     * @param from     the start of the range in epoch milliseconds, inclusive
+     * @param to       the end of the range in epoch milliseconds, inclusive
+     * @param maxLines the maximum number of lines to return
+     * @return the lines in chronological order; files that cannot be read are skipped
+     * @throws IOException if the directory of the file cannot be listed
+     */
+    public static Result readBetween(Path file, long from, long to, int maxLines) throws IOException {
+        if (from > to || maxLines <= 0) {
+            return Result.empty();
+        }
+        final List<Path> files = selectFiles(file, from, to);
+        final List<String> names = new ArrayList<>(files.size());
+        final List<String> lines = new ArrayList<>();
+        boolean truncated = false;
+        for (Path candidate : files) {
+            try {
+                if (readFile(candidate, from, to, maxLines, lines)) {
+                    truncated = true;
+                }
+                names.add(candidate.getFileName().toString());
+            } catch (IOException e) {
+                // Same as search: one unreadable rotation does not hide the others
+                LOGGER.warn("Cannot read log file {}", candidate, e);
+            }
+            if (truncated) {
+                break;
+            }
+        }
+        return new Result(names, lines, truncated);
+    }
+
+    /**
+     * Picks the files that may hold lines of a time range: the rotations of {@code file} whose name
+     * carries a date within the range, oldest first, followed by {@code file} itself when it carries
+     * no date and was modified after the range start.
+     */
+    static List<Path> selectFiles(Path file, long from, long to) throws IOException {
+        final Path directory = file.getParent();
+        final String name = file.getFileName().toString();
+        final Pattern rotation = rotationPattern(name);
+        final ZoneId zone = ZoneId.systemDefault();
+        final LocalDate fromDate = Instant.ofEpochMilli(from).atZone(zone).toLocalDate();
+        final LocalDate toDate = Instant.ofEpochMilli(to).atZone(zone).toLocalDate();
+        final Path realDirectory = directory.toRealPath();
+        final List<Path> files;
+        try (Stream<Path> siblings = Files.list(directory)) {
+            files = siblings.filter(sibling -> rotation.matcher(sibling.getFileName().toString()).matches())
+                    .filter(sibling -> {
+                        final LocalDate date = dateOf(sibling.getFileName().toString());
+                        return date != null && !date.isBefore(fromDate) && !date.isAfter(toDate);
+                    })
+                    .filter(Files::isRegularFile)
+                    .filter(sibling -> isContained(realDirectory, sibling))
+                    .sorted(Comparator.comparing((Path sibling) -> dateOf(sibling.getFileName().toString()))
+                            .thenComparing(Path::getFileName))
+                    .collect(Collectors.toList());
+        }
+        if (dateOf(name) == null && Files.getLastModifiedTime(file).toMillis() >= from) {
+            files.add(file);
+        }
+        return files;
+    }
+
+    /**
+     * Matches the dated rotations of a log file, compressed with gzip or not: the whole name followed
+     * by a date, such as {@code jahia.log.2026-10-17}, or for a name that is dated itself, such as
+     * Tomcat's {@code catalina.2026-10-18.log}, the same name with another date. Logs merely sharing
+     * a prefix, such as {@code catalina.2026-10-17.log} for {@code catalina.out} or
+     * {@code jahia-access.log} for {@code jahia.log}, are not rotations of each other.
+     */
+    static Pattern rotationPattern(String name) {
+        final String base = name.endsWith(GZIP_SUFFIX) ? name.substring(0, name.length() - GZIP_SUFFIX.length()) : name;
+        final Matcher date = FILE_DATE.matcher(base);
+        final String regex;
+        if (date.find()) {
+            regex = Pattern.quote(base.substring(0, date.start())) + DATE_REGEX + Pattern.quote(base.substring(date.end()));
+        } else {
+            regex = Pattern.quote(base) + "[.-]" + DATE_REGEX;
+        }
+        // Zip archives may hold several files and are left out; gzip rotations are read through LogChannels
+        return Pattern.compile(regex + "(?:" + Pattern.quote(GZIP_SUFFIX) + ")?");
+    }
+
+    private static LocalDate dateOf(String name) {
+        final Matcher matcher = FILE_DATE.matcher(name);
+        if (!matcher.find()) {
+            return null;
+        }
+        try {
+            return LocalDate.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3)));
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static boolean isContained(Path directory, Path file) {
+        try {
+            return file.toRealPath().startsWith(directory);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Appends the lines of one file within the range.
+     *
+     * @return {@code true} if {@code maxLines} was reached before the end of the range
+     */
+    private static boolean readFile(Path file, long from, long to, int maxLines, List<String> lines) throws IOException {
+        while (true) {
+            final TimeIndex index = getIndex(file);
+            synchronized (index) {
+                try (SeekableByteChannel channel = LogChannels.open(file)) {
+                    final BasicFileAttributes attributes = LogChannels.readAttributes(file);
+                    if (!index.isValidFor(attributes)) {
+                        // Replaced or truncated since the checkpoints were taken: start over
+                        discard(file, index);
+                        continue;
+                    }
+                    final long start = findStart(channel, index, attributes.size(), from);
+                    return collect(channel, start, attributes.size(), from, to, maxLines, lines);
+                }
+            }
+        }
+    }
+
+    private static TimeIndex getIndex(Path file) throws IOException {
+        synchronized (INDEXES) {
+            TimeIndex index = INDEXES.get(file);
+            if (index == null) {
+                LogMetrics.cacheMiss(METRIC);
+                index = new TimeIndex(LogCursor.fileId(LogChannels.readAttributes(file)));
+                INDEXES.put(file, index);
+            } else {
+                LogMetrics.cacheHit(METRIC);
+            }
+            return index;
+        }
+    }
+
+    private static void discard(Path file, TimeIndex index) {
+        synchronized (INDEXES) {
+            INDEXES.remove(file, index);
+        }
+    }
+
+    /**
+     * Binary-searches the file for the range start.
+     *
+     * @return a line start offset at or before the first line stamped {@code time} or later, and
+     * close enough to it for a sequential read
+     */
+    static long findStart(SeekableByteChannel channel, TimeIndex index, long size, long time) throws IOException {
+        long low = index.lowerBound(time);
+        long high = index.upperBound(time, low, size);
+        final ByteBuffer buffer = ByteBuffer.allocate(PROBE_BYTES);
+        final long[] probe = new long[2];
+        while (high - low > LINEAR_SCAN_BYTES) {
+            final long middle = low + (high - low) / 2;
+            if (!probe(channel, buffer, middle, high, probe)) {
+                // Only continuation lines up to high: the start is before middle, or at high
+                high = middle;
+            } else {
+                index.add(probe[0], probe[1]);
+                if (probe[1] < time) {
+                    low = probe[0];
+                } else {
+                    high = probe[0];
+                }
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first timestamped line starting after {@code position} and before {@code limit}.
+     *
+     * @param result receives the line offset and its timestamp
+     * @return {@code false} if there is no such line
+     */
+    private static boolean probe(SeekableByteChannel channel, ByteBuffer buffer, long position, long limit, long[] result) throws IOException {
+        final byte[] bytes = buffer.array();
+        // The probe lands mid-line: the line it is in starts before position
+        long blockStart = skipLine(channel, buffer, position, limit);
+        blocks:
+        while (blockStart >= 0 && blockStart < limit) {
+            buffer.clear();
+            channel.position(blockStart);
+            final int read = channel.read(buffer);
+            if (read <= 0) {
+                return false;
+            }
+            int lineStart = 0;
+            while (true) {
+                final int lineEnd = indexOf(bytes, lineStart, read, (byte) '\n');
+                if (lineEnd < 0 && lineStart > 0 && read == bytes.length) {
+                    // Incomplete line: read it again from its start
+                    break;
+                }
+                final long time = LogTimestamps.parse(bytes, lineStart, lineEnd < 0 ? read : lineEnd);
+                if (time != LogTimestamps.NONE) {
+                    result[0] = blockStart + lineStart;
+                    result[1] = time;
+                    return true;
+                }
+                if (lineEnd < 0) {
+                    if (read < bytes.length) {
+                        return false;
+                    }
+                    // A line longer than the buffer
+                    blockStart = skipLine(channel, buffer, blockStart + read, limit);
+                    continue blocks;
+                }
+                lineStart = lineEnd + 1;
+                if (blockStart + lineStart >= limit) {
+                    return false;
+                }
+            }
+            blockStart += lineStart;
+        }
+        return false;
+    }
+
+    /**
+     * @return the offset right after the first newline at or after {@code position}, or -1 if
+     * there is none before {@code limit}
+     */
+    private static long skipLine(SeekableByteChannel channel, ByteBuffer buffer, long position, long limit) throws IOException {
+        long offset = position;
+        channel.position(offset);
+        while (offset < limit) {
+            buffer.clear();
+            final int read = channel.read(buffer);
+            if (read <= 0) {
+                return -1;
+            }
+            final int newline = indexOf(buffer.array(), 0, read, (byte) '\n');
+            if (newline >= 0) {
+                return offset + newline + 1;
+            }
+            offset += read;
+        }
+        return -1;
+    }
+
+    private static int indexOf(byte[] bytes, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads lines from {@code start} on, skipping those before the range.
+     *
+     * @return {@code true} if {@code maxLines} was reached before the end of the range
+     */
+    private static boolean collect(SeekableByteChannel channel, long start, long size, long from, long to,
+                                   int maxLines, List<String> lines) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+        final byte[] bytes = buffer.array();
+        final ByteArrayBuilder line = new ByteArrayBuilder();
+        boolean inRange = false;
+        long position = start;
+        channel.position(position);
+        while (position < size) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), size - position));
+            final int read = channel.read(buffer);
+            if (read <= 0) {
+                break;
+            }
+            int lineStart = 0;
+            for (int i = 0; i < read; i++) {
+                if (bytes[i] != '\n') {
+                    continue;
+                }
+                line.append(bytes, lineStart, i);
+                lineStart = i + 1;
+                final long time = LogTimestamps.parse(line.array(), 0, line.length());
+                if (time != LogTimestamps.NONE) {
+                    if (time > to) {
+                        return false;
+                    }
+                    inRange = time >= from;
+                }
+                if (inRange) {
+                    if (lines.size() >= maxLines) {
+                        return true;
+                    }
+                    lines.add(line.toLine());
+                }
+                line.reset();
+            }
+            line.append(bytes, lineStart, read);
+            position += read;
+        }
+        if (line.length() > 0 && lines.size() < maxLines) {
+            // Last line of the file, not terminated yet
+            final long time = LogTimestamps.parse(line.array(), 0, line.length());
+            if (time == LogTimestamps.NONE ? inRange : time >= from && time <= to) {
+                lines.add(line.toLine());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lines of a time range and the files they were read from.
+     */
+    public static final class Result {
+
+        private final List<String> files;
+        private final List<String> lines;
+        private final boolean truncated;
+
+        Result(List<String> files, List<String> lines, boolean truncated) {
+            this.files = files;
+            this.lines = lines;
+            this.truncated = truncated;
+        }
+
+        /**
+         * @return a result without any line, for ranges that could not be read
+         */
+        public static Result empty() {
+            return new Result(Collections.emptyList(), Collections.emptyList(), false);
+        }
+
+        /**
+         * @return the names of the files read, oldest first
+         */
+        public List<String> getFiles() {
+            return files;
+        }
+
+        public List<String> getLines() {
+            return lines;
+        }
+
+        /**
+         * @return {@code true} if the line cap was reached before the end of the range
+         */
+        public boolean isTruncated() {
+            return truncated;
+        }
+    }
+}
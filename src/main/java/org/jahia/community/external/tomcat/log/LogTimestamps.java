@@ -0,0 +1,149 @@
+package org.jahia.community.external.tomcat.log;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parses the timestamp that starts Jahia and Tomcat log lines.
+ *
+ * <p>Recognized prefixes, optionally preceded by {@code [}:
+ * <ul>
+ * <li>{@code 2026-10-18 14:02:03,456} and {@code 2026-10-18T14:02:03.456} (log4j, Jahia)</li>
+ * <li>{@code 18-Oct-2026 14:02:03.456} (Tomcat {@code OneLineFormatter})</li>
+ * </ul>
+ * Milliseconds are optional. Log files carry no zone, so timestamps are read in the JVM default
+ * zone, the one the server writes them in.
+ */
+public final class LogTimestamps {
+
+    /**
+     * Returned by {@link #parse(byte[], int, int)} for lines that do not start with a timestamp,
+     * such as stack trace continuation lines.
+     */
+    public static final long NONE = Long.MIN_VALUE;
+
+    private static final String MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec";
+
+    private LogTimestamps() {
+        throw new AssertionError();
+    }
+
+    /**
+     * @param bytes the buffer holding the line
+     * @param from  the index of the first byte of the line
+     * @param to    the index right after the last byte of the line
+     * @return the timestamp in epoch milliseconds, or {@link #NONE}
+     */
+    public static long parse(byte[] bytes, int from, int to) {
+        int p = from < to && bytes[from] == '[' ? from + 1 : from;
+        final int year;
+        final int month;
+        final int day;
+        if (to - p >= 19 && bytes[p + 4] == '-' && bytes[p + 7] == '-' && (bytes[p + 10] == ' ' || bytes[p + 10] == 'T')) {
+            year = digits(bytes, p, 4);
+            month = digits(bytes, p + 5, 2);
+            day = digits(bytes, p + 8, 2);
+            p += 11;
+        } else if (to - p >= 20 && bytes[p + 2] == '-' && bytes[p + 6] == '-' && bytes[p + 11] == ' ') {
+            day = digits(bytes, p, 2);
+            month = month(bytes, p + 3);
+            year = digits(bytes, p + 7, 4);
+            p += 12;
+        } else {
+            return NONE;
+        }
+        if (to - p < 8 || bytes[p + 2] != ':' || bytes[p + 5] != ':') {
+            return NONE;
+        }
+        final int hour = digits(bytes, p, 2);
+        final int minute = digits(bytes, p + 3, 2);
+        final int second = digits(bytes, p + 6, 2);
+        p += 8;
+        int millis = 0;
+        if (to - p >= 4 && (bytes[p] == ',' || bytes[p] == '.')) {
+            final int parsed = digits(bytes, p + 1, 3);
+            millis = parsed >= 0 ? parsed : 0;
+        }
+        if (year < 0 || month < 1 || day < 0 || hour < 0 || minute < 0 || second < 0) {
+            return NONE;
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second, millis * 1_000_000)
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeException e) {
+            return NONE;
+        }
+    }
+
+    /**
+     * @param bytes the buffer holding a line whose timestamp {@link #parse(byte[], int, int)} read
+     * @param from  the index of the first byte of the line
+     * @param to    the index right after the last byte of the line
+     * @return the index right after the timestamp, and after its closing {@code ]} if it has one
+     */
+    static int skip(byte[] bytes, int from, int to) {
+        final boolean bracketed = bytes[from] == '[';
+        int p = bracketed ? from + 1 : from;
+        p += bytes[p + 4] == '-' ? 19 : 20;
+        if (to - p >= 4 && (bytes[p] == ',' || bytes[p] == '.') && digits(bytes, p + 1, 3) >= 0) {
+            p += 4;
+        }
+        if (bracketed && p < to && bytes[p] == ']') {
+            p++;
+        }
+        return p;
+    }
+
+    /**
+     * Parses a bound of a time range given by a client.
+     *
+     * @param value an ISO-8601 date-time with or without offset ({@code 2026-10-17T14:02},
+     *              {@code 2026-10-17T14:02:00+02:00}) or a date ({@code 2026-10-17})
+     * @return the instant in epoch milliseconds, read in the JVM default zone when no offset is given
+     * @throws DateTimeParseException if {@code value} is not a supported date-time
+     */
+    public static long parseBound(String value) {
+        try {
+            return ZonedDateTime.parse(value).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            // Not zoned: try the other ISO forms below
+        }
+        try {
+            return OffsetDateTime.parse(value).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            // Not offset either
+        }
+        try {
+            return LocalDateTime.parse(value).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return LocalDate.parse(value).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+    }
+
+    private static int digits(byte[] bytes, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            final int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int month(byte[] bytes, int from) {
+        for (int m = 0; m < 12; m++) {
+            final int i = m * 3;
+            if (bytes[from] == MONTHS.charAt(i) && bytes[from + 1] == MONTHS.charAt(i + 1) && bytes[from + 2] == MONTHS.charAt(i + 2)) {
+                return m + 1;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,79 @@
+package org.jahia.community.external.tomcat.log;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Counters and latencies of one operation, as exposed by {@link TomcatLogMetricsMXBean}.
+ * Latencies are in microseconds.
+ */
+public final class OperationStatistics {
+
+    private final long calls;
+    private final long errors;
+    private final long bytesRead;
+    private final long cacheHits;
+    private final long cacheMisses;
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p99Micros;
+    private final double maxMicros;
+
+    @ConstructorProperties({"calls", "errors", "bytesRead", "cacheHits", "cacheMisses", "meanMicros", "p50Micros", "p99Micros", "maxMicros"})
+    public OperationStatistics(long calls, long errors, long bytesRead, long cacheHits, long cacheMisses,
+                               double meanMicros, double p50Micros, double p99Micros, double maxMicros) {
+        this.calls = calls;
+        this.errors = errors;
+        this.bytesRead = bytesRead;
+        this.cacheHits = cacheHits;
+        this.cacheMisses = cacheMisses;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    /**
+     * @return the calls that threw or returned without a result, such as lookups of missing paths
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    /**
+     * @return the median latency, rounded up to a power of two nanoseconds
+     */
+    public double getP50Micros() {
+        return p50Micros;
+    }
+
+    /**
+     * @return the 99th percentile latency, rounded up to a power of two nanoseconds
+     */
+    public double getP99Micros() {
+        return p99Micros;
+    }
+
+    public double getMaxMicros() {
+        return maxMicros;
+    }
+}
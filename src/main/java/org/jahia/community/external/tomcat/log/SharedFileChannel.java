@@ -0,0 +1,100 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A read-only {@link FileChannel} shared by every reader of the same file, closed when the last
+ * one releases it.
+ *
+ * <p>Readers use positional reads only, so the channel position is never relied upon and the
+ * channel can serve concurrent readers. When the file at a path has been replaced, for instance
+ * by log rotation, the next {@link #acquire(Path)} opens the new file while readers still holding
+ * the old channel keep reading the content they started with.
+ */
+final class SharedFileChannel {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedFileChannel.class);
+
+    // Guarded by itself
+    private static final Map<Path, SharedFileChannel> OPEN_CHANNELS = new HashMap<>();
+
+    private final Path path;
+    private final Object fileKey;
+    private final FileChannel channel;
+    // Guarded by OPEN_CHANNELS
+    private int references = 1;
+
+    private SharedFileChannel(Path path, Object fileKey, FileChannel channel) {
+        this.path = path;
+        this.fileKey = fileKey;
+        this.channel = channel;
+    }
+
+    /**
+     * @param file the file to read
+     * @return the shared channel of the file, to be {@linkplain #release() released} once done
+     * @throws IOException if the file cannot be opened
+     */
+    static SharedFileChannel acquire(Path file) throws IOException {
+        final Path path = file.toAbsolutePath().normalize();
+        final Object fileKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        synchronized (OPEN_CHANNELS) {
+            final SharedFileChannel shared = OPEN_CHANNELS.get(path);
+            // Without file keys a replaced file cannot be told apart, so the channel is not shared
+            if (shared != null && fileKey != null && Objects.equals(fileKey, shared.fileKey)) {
+                shared.references++;
+                return shared;
+            }
+        }
+        // Opened outside the lock: another thread may open the same file meanwhile, the last one wins the map
+        final SharedFileChannel opened = new SharedFileChannel(path, fileKey, FileChannel.open(path, StandardOpenOption.READ));
+        if (fileKey != null) {
+            synchronized (OPEN_CHANNELS) {
+                OPEN_CHANNELS.put(path, opened);
+            }
+        }
+        return opened;
+    }
+
+    /**
+     * @return the number of files with an open shared channel
+     */
+    static int getOpenCount() {
+        synchronized (OPEN_CHANNELS) {
+            return OPEN_CHANNELS.size();
+        }
+    }
+
+    FileChannel channel() {
+        return channel;
+    }
+
+    /**
+     * Gives the channel back, closing it if no other reader holds it. Must be called once per
+     * {@link #acquire(Path)}.
+     */
+    void release() {
+        synchronized (OPEN_CHANNELS) {
+            if (--references > 0) {
+                return;
+            }
+            OPEN_CHANNELS.remove(path, this);
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOGGER.debug("Cannot close {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.jahia.community.external.tomcat.log;
+
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Timestamps found at known line offsets of a log file, collected while binary-searching it.
+ *
+ * <p>Each search narrows its range with the checkpoints of the previous ones, so repeated queries
+ * on the same file need fewer and fewer probes. Appending to the file keeps the checkpoints valid;
+ * when the limit is reached every other checkpoint is dropped.
+ *
+ * <p>Not thread-safe; callers serialize access.
+ */
+final class TimeIndex {
+
+    static final int MAX_CHECKPOINTS = 1024;
+
+    private final String fileId;
+    private final int maxCheckpoints;
+    // Line start offset -> timestamp of that line
+    private final TreeMap<Long, Long> checkpoints = new TreeMap<>();
+    private long knownSize;
+
+    TimeIndex(String fileId) {
+        this(fileId, MAX_CHECKPOINTS);
+    }
+
+    TimeIndex(String fileId, int maxCheckpoints) {
+        this.fileId = fileId;
+        this.maxCheckpoints = maxCheckpoints;
+    }
+
+    /**
+     * @return {@code true} if the checkpoints still describe the file, {@code false} if it was
+     * replaced or truncated since
+     */
+    boolean isValidFor(BasicFileAttributes attributes) {
+        if (!fileId.equals(LogCursor.fileId(attributes)) || attributes.size() < knownSize) {
+            return false;
+        }
+        knownSize = attributes.size();
+        return true;
+    }
+
+    /**
+     * @return the offset of the last checkpoint before {@code time}, or 0
+     */
+    long lowerBound(long time) {
+        long bound = 0;
+        for (Map.Entry<Long, Long> checkpoint : checkpoints.entrySet()) {
+            if (checkpoint.getValue() >= time) {
+                break;
+            }
+            bound = checkpoint.getKey();
+        }
+        return bound;
+    }
+
+    /**
+     * @return the offset of the first checkpoint at or after {@code time} and after {@code from},
+     * or {@code size}
+     */
+    long upperBound(long time, long from, long size) {
+        for (Map.Entry<Long, Long> checkpoint : checkpoints.tailMap(from, false).entrySet()) {
+            if (checkpoint.getValue() >= time) {
+                return checkpoint.getKey();
+            }
+        }
+        return size;
+    }
+
+    void add(long offset, long time) {
+        checkpoints.put(offset, time);
+        if (checkpoints.size() > maxCheckpoints) {
+            final Iterator<Long> it = checkpoints.keySet().iterator();
+            boolean drop = false;
+            while (it.hasNext()) {
+                it.next();
+                if (drop) {
+                    it.remove();
+                }
+                drop = !drop;
+            }
+        }
+    }
+
+    int getCheckpointCount() {
+        return checkpoints.size();
+    }
+}
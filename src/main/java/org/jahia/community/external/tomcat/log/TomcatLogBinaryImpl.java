@@ -1,30 +1,74 @@
 package org.jahia.community.external.tomcat.log;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
 import javax.jcr.Binary;
 import javax.jcr.RepositoryException;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.vfs2.FileContent;
+import org.apache.commons.vfs2.FileName;
+import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public final class TomcatLogBinaryImpl implements Binary {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(TomcatLogBinaryImpl.class);
+    private static final String FILE_SCHEME = "file";
 
-    private final FileContent fileContent;
+    // Set for binaries of listed files, whose content is only opened when they are read
+    private final FileObject root;
+    private final String relativePath;
+    private final long listedSize;
+    private FileContent fileContent;
+    // Opened on the first ranged read of a local file, released by dispose()
+    private SharedFileChannel sharedChannel;
+    private boolean disposed;
 
     public TomcatLogBinaryImpl(FileContent fileContent) {
         super();
+        this.root = null;
+        this.relativePath = null;
+        this.listedSize = -1;
         this.fileContent = fileContent;
     }
 
+    /**
+     * Creates the binary of a file listed from the directory cache, without resolving the file:
+     * listings of large folders must not cost a VFS lookup per file that is never read.
+     *
+     * @param root         the log root
+     * @param relativePath the path of the file relative to {@code root}
+     * @param size         the size of the file when it was listed
+     */
+    TomcatLogBinaryImpl(FileObject root, String relativePath, long size) {
+        super();
+        this.root = root;
+        this.relativePath = relativePath;
+        this.listedSize = size;
+    }
+
     @Override
     public void dispose() {
+        final FileContent content;
+        synchronized (this) {
+            disposed = true;
+            if (sharedChannel != null) {
+                sharedChannel.release();
+                sharedChannel = null;
+            }
+            content = fileContent;
+        }
+        if (content == null) {
+            return;
+        }
         try {
-            fileContent.close();
+            content.close();
         } catch (FileSystemException ex) {
             logger.warn("Impossible to close file content", ex);
         }
@@ -32,8 +76,13 @@ public final class TomcatLogBinaryImpl implements Binary {
 
     @Override
     public long getSize() throws RepositoryException {
+        synchronized (this) {
+            if (fileContent == null) {
+                return listedSize;
+            }
+        }
         try {
-            return fileContent.getSize();
+            return content().getSize();
         } catch (FileSystemException e) {
             throw new RepositoryException(e);
         }
@@ -42,20 +91,55 @@ public final class TomcatLogBinaryImpl implements Binary {
     @Override
     public InputStream getStream() throws RepositoryException {
         try {
-            return fileContent.getInputStream();
+            return content().getInputStream();
         } catch (FileSystemException e) {
             throw new RepositoryException(e);
         }
     }
 
+    private synchronized FileContent content() throws FileSystemException {
+        if (fileContent == null) {
+            final FileObject file = root.resolveFile(relativePath);
+            // Drop the state VFS may hold from before the file was rotated
+            file.refresh();
+            fileContent = file.getContent();
+        }
+        return fileContent;
+    }
+
     @Override
     public int read(byte[] b, long position) throws IOException, RepositoryException {
+        try (LogMetrics.Timer timer = LogMetrics.time("binary.read")) {
+            final int read = readAt(b, position);
+            timer.addBytes(read);
+            return timer.succeeded(read);
+        }
+    }
+
+    private int readAt(byte[] b, long position) throws IOException, RepositoryException {
         if (b == null) {
             throw new NullPointerException("destination buffer must not be null");
         }
         if (position < 0) {
             throw new IOException("position must not be negative: " + position);
         }
+        final FileChannel channel = getChannel();
+        if (channel == null) {
+            return readFromStream(b, position);
+        }
+        // Positional reads leave the shared channel position alone, so concurrent reads do not interfere
+        final ByteBuffer buffer = ByteBuffer.wrap(b);
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                break;
+            }
+        }
+        return buffer.position() == 0 && b.length > 0 ? -1 : buffer.position();
+    }
+
+    // Files outside the local file system cannot be read at a position: skip up to it instead
+    private int readFromStream(byte[] b, long position) throws IOException, RepositoryException {
         InputStream is = null;
         int read = 0;
         try {
@@ -79,13 +163,36 @@ public final class TomcatLogBinaryImpl implements Binary {
         return read;
     }
 
+    /**
+     * @return the channel shared by the binaries of the same local file, or {@code null} if the
+     * file is not on the local file system or the binary was disposed
+     */
+    private synchronized FileChannel getChannel() throws IOException {
+        if (disposed) {
+            // Nothing would release a channel acquired now: read through a stream as before
+            return null;
+        }
+        if (sharedChannel == null) {
+            final FileName name = content().getFile().getName();
+            if (!FILE_SCHEME.equals(name.getScheme())) {
+                return null;
+            }
+            final Path path = new File(name.getPath()).toPath();
+            sharedChannel = SharedFileChannel.acquire(path);
+        }
+        return sharedChannel.channel();
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) {
             return true;
         } else if (obj != null && this.getClass() == obj.getClass()) {
             TomcatLogBinaryImpl other = (TomcatLogBinaryImpl)obj;
-            return this.fileContent == other.fileContent;
+            if (root != null) {
+                return root == other.root && relativePath.equals(other.relativePath);
+            }
+            return other.root == null && this.fileContent == other.fileContent;
         } else {
             return false;
         }
@@ -93,6 +200,6 @@ public final class TomcatLogBinaryImpl implements Binary {
 
     @Override
     public int hashCode() {
-        return fileContent.hashCode();
+        return root != null ? relativePath.hashCode() : fileContent.hashCode();
     }
 }
@@ -24,6 +24,8 @@ import javax.jcr.PathNotFoundException;
 import javax.jcr.RepositoryException;
 import java.io.File;
 import java.io.IOException;
+import java.net.URLConnection;
+import java.nio.file.Paths;
 import java.util.*;
 
 public class TomcatLogDataSource implements ExternalDataSource, ExternalDataSource.Writable, ExternalDataSource.CanLoadChildrenInBatch, ExternalDataSource.SupportPrivileges {
@@ -32,13 +34,13 @@ public class TomcatLogDataSource implements ExternalDataSource, ExternalDataSour
     private static final Set<String> SUPPORTED_NODE_TYPES = new HashSet<>(Arrays.asList(Constants.JAHIANT_FILE, Constants.JAHIANT_FOLDER, Constants.JCR_CONTENT));
     private static final Logger LOGGER = LoggerFactory.getLogger(TomcatLogDataSource.class);
     private static final String JCR_CONTENT_SUFFIX = FileSystem.SEPARATOR + Constants.JCR_CONTENT;
-    private static final String UNKNOWN_FILE_TYPE = "Found non file or folder entry at path {}, maybe an alias. VFS file type: {}";
     private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
     private static final String IMAGE_CONTENT_TYPE_PATTERN = "image/(.*)";
     private FileObject root;
     private String rootPath;
     private String canonicalRootPath;
     private FileSystemManager manager;
+    private LogDirectoryCache cache;
 
     public static String getTomcatLogPath() {
         final String catalinaBase = System.getProperty("catalina.base");
@@ -77,6 +79,18 @@ public class TomcatLogDataSource implements ExternalDataSource, ExternalDataSour
         } catch (IOException ex) {
             throw new IllegalStateException("Cannot set root to " + tomcatLogPath, ex);
         }
+        stop();
+        cache = new LogDirectoryCache(Paths.get(canonicalRootPath), TomcatLogDataSource::getMimeType);
+    }
+
+    /**
+     * Stops watching the log directory and drops the cached metadata. Called when the provider is
+     * unmounted.
+     */
+    public void stop() {
+        if (cache != null) {
+            cache.close();
+        }
     }
 
     protected FileObject getRoot() {
@@ -103,17 +117,18 @@ public class TomcatLogDataSource implements ExternalDataSource, ExternalDataSour
 
     @Override
     public boolean itemExists(String path) {
-        if (StringUtils.isBlank(path)) {
+        try (LogMetrics.Timer timer = LogMetrics.time("dataSource.itemExists")) {
+            if (StringUtils.isBlank(path)) {
+                return timer.succeeded(false);
+            }
+            try {
+                final String filePath = path.endsWith(JCR_CONTENT_SUFFIX) ? StringUtils.substringBeforeLast(path, JCR_CONTENT_SUFFIX) : path;
+                return timer.succeeded(cache.lookup(Escaping.unescapeIllegalJcrChars(filePath)) != null);
+            } catch (IOException e) {
+                LOGGER.warn("Unable to check file existence for path " + path, e);
+            }
             return false;
         }
-        try {
-            final FileObject file = getFile(path.endsWith(JCR_CONTENT_SUFFIX) ? StringUtils.substringBeforeLast(
-                    path, JCR_CONTENT_SUFFIX) : path);
-            return file.exists();
-        } catch (FileSystemException e) {
-            LOGGER.warn("Unable to check file existence for path " + path, e);
-        }
-        return false;
     }
 
     @Override
@@ -143,43 +158,48 @@ public class TomcatLogDataSource implements ExternalDataSource, ExternalDataSour
 
     @Override
     public ExternalData getItemByPath(String path) throws PathNotFoundException {
-        if (StringUtils.isBlank(path)) {
-            throw new PathNotFoundException("null or blank path");
-        }
-        try {
-            String unescapedPath = Escaping.unescapeIllegalJcrChars(path);
-            if (path.endsWith(JCR_CONTENT_SUFFIX)) {
-                FileObject fileObject = getFile(StringUtils.substringBeforeLast(unescapedPath, JCR_CONTENT_SUFFIX));
-                if (!fileObject.exists() || fileObject.getType() == FileType.FOLDER) {
-                    throw new PathNotFoundException(path);
-                }
-                return getFileContent(fileObject.getContent());
-            } else {
-                FileObject fileObject = getFile(unescapedPath);
-                if (!fileObject.exists()) {
-                    throw new PathNotFoundException(path);
-                }
-                return getFile(fileObject);
+        try (LogMetrics.Timer timer = LogMetrics.time("dataSource.getItemByPath")) {
+            if (StringUtils.isBlank(path)) {
+                throw new PathNotFoundException("null or blank path");
             }
+            try {
+                String unescapedPath = Escaping.unescapeIllegalJcrChars(path);
+                if (path.endsWith(JCR_CONTENT_SUFFIX)) {
+                    final String filePath = StringUtils.substringBeforeLast(unescapedPath, JCR_CONTENT_SUFFIX);
+                    final LogDirectoryCache.Entry entry = cache.lookup(filePath);
+                    if (entry == null || entry.isDirectory()) {
+                        throw new PathNotFoundException(path);
+                    }
+                    return timer.succeeded(getFileContent(filePath, entry));
+                } else {
+                    final LogDirectoryCache.Entry entry = cache.lookup(unescapedPath);
+                    if (entry == null) {
+                        throw new PathNotFoundException(path);
+                    }
+                    return timer.succeeded(getFile(unescapedPath, entry));
+                }
 
-        } catch (FileSystemException ex) {
-            throw new PathNotFoundException("File system exception while trying to retrieve " + path, ex);
+            } catch (IOException ex) {
+                throw new PathNotFoundException("File system exception while trying to retrieve " + path, ex);
+            }
         }
     }
 
     public FileObject getFile(String path) throws FileSystemException {
-        if (path == null || path.isEmpty() || FileSystem.SEPARATOR.equals(path)) {
-            return root;
-        }
-        final String relative = path.charAt(0) == FileSystem.SEPARATOR_CHAR ? path.substring(1) : path;
-        final FileObject resolved = root.resolveFile(relative);
-        // Defense-in-depth: ensure the resolved file is within the log root (prevent path traversal).
-        final String resolvedPath = resolved.getName().getPath();
-        if (!isWithinRoot(resolvedPath, rootPath) || !isCanonicallyWithinRoot(resolvedPath)) {
-            LOGGER.warn("Rejected path outside Tomcat log root: {}", path);
-            throw new FileSystemException("vfs.provider/resolve-file.error", path);
+        try (LogMetrics.Timer timer = LogMetrics.time("dataSource.getFile")) {
+            if (path == null || path.isEmpty() || FileSystem.SEPARATOR.equals(path)) {
+                return timer.succeeded(root);
+            }
+            final String relative = path.charAt(0) == FileSystem.SEPARATOR_CHAR ? path.substring(1) : path;
+            final FileObject resolved = root.resolveFile(relative);
+            // Defense-in-depth: ensure the resolved file is within the log root (prevent path traversal).
+            final String resolvedPath = resolved.getName().getPath();
+            if (!isWithinRoot(resolvedPath, rootPath) || !isCanonicallyWithinRoot(resolvedPath)) {
+                LOGGER.warn("Rejected path outside Tomcat log root: {}", path);
+                throw new FileSystemException("vfs.provider/resolve-file.error", path);
+            }
+            return timer.succeeded(resolved);
         }
-        return resolved;
     }
 
     private static boolean isWithinRoot(String candidatePath, String rootPath) {
@@ -200,85 +220,72 @@ public class TomcatLogDataSource implements ExternalDataSource, ExternalDataSour
 
     @Override
     public List<String> getChildren(String path) throws RepositoryException {
-        if (path.endsWith(JCR_CONTENT_SUFFIX)) {
-            return Collections.emptyList();
-        }
-        try {
-            return getChildNames(getFile(path), path);
-        } catch (FileSystemException e) {
-            LOGGER.error("Cannot get node children", e);
-        }
-        return Collections.emptyList();
-    }
-
-    private List<String> getChildNames(FileObject fileObject, String path) throws FileSystemException, PathNotFoundException {
-        final FileType type = fileObject.getType();
-        if (type == FileType.FILE) {
-            return new ArrayList<>(JCR_CONTENT_LIST);
-        }
-        if (type == FileType.FOLDER) {
-            return listFolderChildNames(fileObject);
-        }
-        warnOrThrowNotFound(fileObject, path);
-        return Collections.emptyList();
-    }
-
-    private List<String> listFolderChildNames(FileObject fileObject) throws FileSystemException {
-        final List<String> children = new LinkedList<>();
-        for (FileObject object : fileObject.getChildren()) {
-            if (getSupportedNodeTypes().contains(getDataType(object))) {
-                children.add(Escaping.escapeIllegalJcrChars(object.getName().getBaseName()));
+        try (LogMetrics.Timer timer = LogMetrics.time("dataSource.getChildren")) {
+            if (path.endsWith(JCR_CONTENT_SUFFIX)) {
+                return timer.succeeded(Collections.<String>emptyList());
+            }
+            try {
+                final String filePath = Escaping.unescapeIllegalJcrChars(path);
+                final LogDirectoryCache.Entry entry = cache.lookup(filePath);
+                if (entry == null) {
+                    throw new PathNotFoundException(path);
+                }
+                if (!entry.isDirectory()) {
+                    return timer.succeeded(new ArrayList<>(JCR_CONTENT_LIST));
+                }
+                final List<String> children = new ArrayList<>();
+                for (LogDirectoryCache.Entry child : listFolder(filePath, path)) {
+                    children.add(Escaping.escapeIllegalJcrChars(child.getName()));
+                }
+                return timer.succeeded(children);
+            } catch (IOException e) {
+                LOGGER.error("Cannot get node children", e);
             }
+            return Collections.emptyList();
         }
-        return children;
     }
 
     @Override
     public List<ExternalData> getChildrenNodes(String path) throws RepositoryException {
-        if (path.endsWith(JCR_CONTENT_SUFFIX) || path.contains("j:translation")) {
-            return Collections.emptyList();
-        }
-        try {
-            return getChildExternalData(getFile(path), path);
-        } catch (FileSystemException e) {
-            LOGGER.error("Cannot get node children", e);
-        }
-        return Collections.emptyList();
-    }
-
-    private List<ExternalData> getChildExternalData(FileObject fileObject, String path) throws FileSystemException, PathNotFoundException {
-        final FileType type = fileObject.getType();
-        if (type == FileType.FILE) {
-            return Collections.singletonList(getFileContent(fileObject.getContent()));
-        }
-        if (type == FileType.FOLDER) {
-            return listFolderChildren(fileObject);
-        }
-        warnOrThrowNotFound(fileObject, path);
-        return Collections.emptyList();
-    }
-
-    private List<ExternalData> listFolderChildren(FileObject fileObject) throws FileSystemException {
-        // Refresh so external changes to the directory are picked up
-        fileObject.refresh();
-        final List<ExternalData> children = new LinkedList<>();
-        for (FileObject object : fileObject.getChildren()) {
-            if (getSupportedNodeTypes().contains(getDataType(object))) {
-                children.add(getFile(object));
-                if (object.getType() == FileType.FILE) {
-                    children.add(getFileContent(object.getContent()));
+        try (LogMetrics.Timer timer = LogMetrics.time("dataSource.getChildrenNodes")) {
+            if (path.endsWith(JCR_CONTENT_SUFFIX) || path.contains("j:translation")) {
+                return timer.succeeded(Collections.<ExternalData>emptyList());
+            }
+            try {
+                final String filePath = Escaping.unescapeIllegalJcrChars(path);
+                final LogDirectoryCache.Entry entry = cache.lookup(filePath);
+                if (entry == null) {
+                    throw new PathNotFoundException(path);
                 }
+                if (!entry.isDirectory()) {
+                    return timer.succeeded(Collections.singletonList(getFileContent(filePath, entry)));
+                }
+                final List<LogDirectoryCache.Entry> entries = listFolder(filePath, path);
+                final List<ExternalData> children = new ArrayList<>(entries.size() * 2);
+                final String parentPath = filePath.endsWith(FileSystem.SEPARATOR) ? filePath : filePath + FileSystem.SEPARATOR;
+                for (LogDirectoryCache.Entry child : entries) {
+                    final String childPath = parentPath + child.getName();
+                    children.add(getFile(childPath, child));
+                    if (!child.isDirectory()) {
+                        children.add(getFileContent(childPath, child));
+                    }
+                }
+                return timer.succeeded(children);
+            } catch (IOException e) {
+                LOGGER.error("Cannot get node children", e);
             }
+            return Collections.emptyList();
         }
-        return children;
     }
 
-    private void warnOrThrowNotFound(FileObject fileObject, String path) throws FileSystemException, PathNotFoundException {
-        if (fileObject.exists()) {
-            LOGGER.warn(UNKNOWN_FILE_TYPE, fileObject, fileObject.getType());
-        } else {
+    // Served from the cached snapshot of the folder: no syscall unless the folder changed
+    private List<LogDirectoryCache.Entry> listFolder(String filePath, String path) throws IOException, PathNotFoundException {
+        final List<LogDirectoryCache.Entry> entries = cache.list(filePath);
+        if (entries == null) {
+            // Removed since it was looked up
             throw new PathNotFoundException(path);
         }
+        return entries;
     }
 
     @Override
@@ -310,40 +317,31 @@ public class TomcatLogDataSource implements ExternalDataSource, ExternalDataSour
         return privileges;
     }
 
-    private ExternalData getFile(FileObject fileObject) throws FileSystemException {
-        final String type = getDataType(fileObject);
+    private ExternalData getFile(String filePath, LogDirectoryCache.Entry entry) {
+        final String type = entry.isDirectory() ? Constants.JAHIANT_FOLDER : Constants.JAHIANT_FILE;
 
         final Map<String, String[]> properties = new HashMap<>();
         final Map<String, Map<String, String[]>> i18nProperties = new HashMap<>();
         final List<String> addedMixins = new ArrayList<>();
-        final FileContent content = fileObject.getContent();
-        if (content != null) {
-            final long lastModifiedTime = fileObject.getContent().getLastModifiedTime();
-            if (lastModifiedTime > 0) {
-                final Calendar calendar = Calendar.getInstance();
-                calendar.setTimeInMillis(lastModifiedTime);
-                final String[] timestamp = new String[]{ISO8601.format(calendar)};
-                final String[] name = new String[]{fileObject.getName().getBaseName()};
-                properties.put(Constants.JCR_CREATED, timestamp);
-                properties.put(Constants.NODENAME, name);
-                properties.put(Constants.JCR_LASTMODIFIED, timestamp);
-                final Map<String, String[]> i18nProperty = new HashMap<>();
-                i18nProperty.put(Constants.JCR_TITLE,name);
-                i18nProperties.put("en", i18nProperty);
-            }
-            // Add jmix:image mixin in case of the file is a picture.
-            if (content.getContentInfo() != null && content.getContentInfo().getContentType() != null
-                    && content.getContentInfo().getContentType().matches(IMAGE_CONTENT_TYPE_PATTERN)) {
-                addedMixins.add(Constants.JAHIAMIX_IMAGE);
-            }
-
+        final long lastModifiedTime = entry.getLastModified();
+        if (lastModifiedTime > 0) {
+            final Calendar calendar = Calendar.getInstance();
+            calendar.setTimeInMillis(lastModifiedTime);
+            final String[] timestamp = new String[]{ISO8601.format(calendar)};
+            final String[] name = new String[]{entry.getName()};
+            properties.put(Constants.JCR_CREATED, timestamp);
+            properties.put(Constants.NODENAME, name);
+            properties.put(Constants.JCR_LASTMODIFIED, timestamp);
+            final Map<String, String[]> i18nProperty = new HashMap<>();
+            i18nProperty.put(Constants.JCR_TITLE,name);
+            i18nProperties.put("en", i18nProperty);
         }
-
-        String path = toJcrPath(fileObject.getName().getPath().substring(rootPath.length()));
-        if (!path.startsWith(FileSystem.SEPARATOR)) {
-            path = FileSystem.SEPARATOR + path;
+        // Add jmix:image mixin in case of the file is a picture.
+        if (entry.getMimeType() != null && entry.getMimeType().matches(IMAGE_CONTENT_TYPE_PATTERN)) {
+            addedMixins.add(Constants.JAHIAMIX_IMAGE);
         }
 
+        final String path = toJcrPath(filePath);
         final ExternalData result = new ExternalData(path, path, type, properties);
         result.setI18nProperties(i18nProperties);
         result.setMixin(addedMixins);
@@ -356,23 +354,36 @@ public class TomcatLogDataSource implements ExternalDataSource, ExternalDataSour
     }
 
     protected ExternalData getFileContent(final FileContent content) throws FileSystemException {
+        return getFileContent(toJcrPath(content.getFile().getName().getPath().substring(rootPath.length())), getContentType(content), content);
+    }
+
+    private ExternalData getFileContent(String filePath, LogDirectoryCache.Entry entry) {
+        // Containment was checked when the entry was cached; the file is only resolved once read
+        return getFileContent(toJcrPath(filePath), entry.getMimeType(),
+                new TomcatLogBinaryImpl(root, StringUtils.removeStart(filePath, FileSystem.SEPARATOR), entry.getSize()));
+    }
+
+    private ExternalData getFileContent(String path, String mimeType, FileContent content) {
+        return getFileContent(path, mimeType, new TomcatLogBinaryImpl(content));
+    }
+
+    private ExternalData getFileContent(String path, String mimeType, TomcatLogBinaryImpl binary) {
         final Map<String, String[]> properties = new HashMap<>(1);
 
-        properties.put(Constants.JCR_MIMETYPE, new String[]{getContentType(content)});
+        properties.put(Constants.JCR_MIMETYPE, new String[]{mimeType});
 
-        final String path = toJcrPath(content.getFile().getName().getPath().substring(rootPath.length()));
         final String jcrContentPath = path + FileSystem.SEPARATOR + Constants.JCR_CONTENT;
         final ExternalData externalData = new ExternalData(jcrContentPath, jcrContentPath, Constants.JAHIANT_RESOURCE, properties);
         final Map<String, Binary[]> binaryProperties = new HashMap<>(1);
-        binaryProperties.put(Constants.JCR_DATA, new Binary[]{new TomcatLogBinaryImpl(content)});
+        binaryProperties.put(Constants.JCR_DATA, new Binary[]{binary});
         externalData.setBinaryProperties(binaryProperties);
 
         return externalData;
     }
 
     protected String getContentType(FileContent content) throws FileSystemException {
-        // content.getContentInfo() may return null (see null-guard in getFile(FileObject)),
-        // so resolve defensively rather than dereferencing it directly.
+        // content.getContentInfo() may return null, so resolve defensively rather than
+        // dereferencing it directly.
         String contentType = content.getContentInfo() != null ? content.getContentInfo().getContentType() : null;
         if (contentType == null) {
             contentType = JCRContentUtils.getMimeType(content.getFile().getName().getBaseName());
@@ -382,4 +393,13 @@ public class TomcatLogDataSource implements ExternalDataSource, ExternalDataSour
         }
         return contentType;
     }
+
+    // Same name-based lookup as the VFS content info factory, without touching the file
+    private static String getMimeType(String fileName) {
+        String contentType = URLConnection.getFileNameMap().getContentTypeFor(fileName);
+        if (contentType == null) {
+            contentType = JCRContentUtils.getMimeType(fileName);
+        }
+        return contentType != null ? contentType : DEFAULT_CONTENT_TYPE;
+    }
 }
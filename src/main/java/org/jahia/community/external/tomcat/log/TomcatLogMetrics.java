@@ -0,0 +1,63 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ * Publishes the {@link LogMetrics} counters on the platform MBean server, so the calls, bytes read,
+ * cache hits and latency percentiles of the provider can be watched from any JMX console.
+ */
+@Component(service = TomcatLogMetrics.class, immediate = true)
+public class TomcatLogMetrics implements TomcatLogMetricsMXBean {
+
+    static final String OBJECT_NAME = "org.jahia.community.tomcatlogprovider:type=TomcatLogMetrics";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TomcatLogMetrics.class);
+
+    @Activate
+    void activate() {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                // Left behind by a previous instance of the bundle that was not deactivated
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            LOGGER.warn("Cannot register {}; log provider metrics will not be available over JMX", OBJECT_NAME, e);
+        }
+    }
+
+    @Deactivate
+    void deactivate() {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            LOGGER.warn("Cannot unregister {}", OBJECT_NAME, e);
+        }
+    }
+
+    @Override
+    public Map<String, OperationStatistics> getOperations() {
+        return LogMetrics.snapshot();
+    }
+
+    @Override
+    public void reset() {
+        LogMetrics.reset();
+    }
+}
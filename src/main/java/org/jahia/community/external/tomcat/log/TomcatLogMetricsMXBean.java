@@ -0,0 +1,20 @@
+package org.jahia.community.external.tomcat.log;
+
+import java.util.Map;
+
+/**
+ * Management interface of {@link TomcatLogMetrics}, registered as
+ * {@code org.jahia.community.tomcatlogprovider:type=TomcatLogMetrics}.
+ */
+public interface TomcatLogMetricsMXBean {
+
+    /**
+     * @return the statistics of every operation called since the start or the last reset, by name
+     */
+    Map<String, OperationStatistics> getOperations();
+
+    /**
+     * Drops every counter.
+     */
+    void reset();
+}
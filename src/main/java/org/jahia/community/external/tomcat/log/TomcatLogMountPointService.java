@@ -39,6 +39,7 @@ public class TomcatLogMountPointService implements ManagedService {
 
     private volatile String mountPath = DEFAULT_MOUNT_PATH;
     private ExternalContentStoreProvider tomcatProvider;
+    private TomcatLogDataSource dataSource;
 
     private JahiaUserManagerService userManagerService;
     private JahiaGroupManagerService groupManagerService;
@@ -103,7 +104,7 @@ public class TomcatLogMountPointService implements ManagedService {
     private synchronized void remount() {
         stopProvider();
         try {
-            final TomcatLogDataSource dataSource = new TomcatLogDataSource();
+            dataSource = new TomcatLogDataSource();
             dataSource.setRoot();
 
             tomcatProvider = createProvider();
@@ -140,5 +141,9 @@ public class TomcatLogMountPointService implements ManagedService {
             tomcatProvider.stop();
             tomcatProvider = null;
         }
+        if (dataSource != null) {
+            dataSource.stop();
+            dataSource = null;
+        }
     }
 }
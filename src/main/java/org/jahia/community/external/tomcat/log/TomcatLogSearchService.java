@@ -0,0 +1,65 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the searches of {@link LogSearcher} on a pool of scan threads shared by all queries.
+ *
+ * <p>The pool has one thread per processor and a bounded queue of pending file scans, so that
+ * concurrent searches share the CPU rather than each starting threads of its own; scans beyond the
+ * queue are left out of their search, which reports itself as truncated.
+ */
+@Component(service = TomcatLogSearchService.class, immediate = true)
+public class TomcatLogSearchService {
+
+    private static final int MAX_QUEUED_SCANS = 1024;
+    private static final long IDLE_THREAD_SECONDS = 60;
+
+    private volatile ThreadPoolExecutor executor;
+
+    @Activate
+    void activate() {
+        final int threads = Runtime.getRuntime().availableProcessors();
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, IDLE_THREAD_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(MAX_QUEUED_SCANS), runnable -> {
+            final Thread thread = new Thread(runnable, "tomcat-log-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Searches are occasional: do not keep the threads around between them
+        pool.allowCoreThreadTimeOut(true);
+        executor = pool;
+    }
+
+    @Deactivate
+    void deactivate() {
+        final ThreadPoolExecutor pool = executor;
+        if (pool != null) {
+            pool.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Searches the log files, as {@link LogSearcher#search(Path, String, LogLineMatcher, int, int, long, java.util.concurrent.ExecutorService)}.
+     *
+     * @return the matches, or an empty result once the service is stopped
+     * @throws IOException if the log directory cannot be listed
+     */
+    public LogSearcher.Result search(Path root, String glob, LogLineMatcher matcher, int contextLines, int maxResults, long timeoutMs)
+            throws IOException {
+        final ThreadPoolExecutor pool = executor;
+        if (pool == null) {
+            return LogSearcher.Result.empty();
+        }
+        return LogSearcher.search(root, glob, matcher, contextLines, maxResults, timeoutMs, pool);
+    }
+}
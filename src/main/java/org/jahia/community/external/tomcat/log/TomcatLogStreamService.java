@@ -0,0 +1,160 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Pushes the lines appended to log files to any number of subscribers.
+ *
+ * <p>A single {@link LogFollower} is kept per watched file, so the appended bytes are read once
+ * whatever the number of subscribers; followers are dropped as soon as their last subscriber
+ * cancels. Each subscriber gets a bounded buffer with drop-oldest backpressure, drained on a
+ * delivery thread of its own while it has events pending: a subscriber slow to write to its client
+ * delays neither the polling of the files nor the other subscribers.
+ */
+@Component(service = TomcatLogStreamService.class, immediate = true)
+public class TomcatLogStreamService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TomcatLogStreamService.class);
+    // A stat per followed file every 200 ms is negligible and keeps the push latency well under a second
+    private static final long POLL_INTERVAL_MS = 200;
+    private static final int SUBSCRIBER_BUFFER_EVENTS = 256;
+    // Leaves the completion signals time to reach the subscribers when the service stops
+    private static final long DELIVERY_SHUTDOWN_MS = 1000;
+
+    // Structural changes are synchronized on the map; lookups stay lock-free for detach()
+    private final Map<Path, LogFollower> followers = new ConcurrentHashMap<>();
+    private volatile ScheduledExecutorService scheduler;
+    private volatile ExecutorService deliveryExecutor;
+
+    @Activate
+    void activate() {
+        deliveryExecutor = Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable, "tomcat-log-stream-delivery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "tomcat-log-follower");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollFollowers, POLL_INTERVAL_MS, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @Deactivate
+    void deactivate() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        final List<LogFollower> stopped;
+        synchronized (followers) {
+            stopped = new ArrayList<>(followers.values());
+            followers.clear();
+        }
+        stopped.forEach(LogFollower::complete);
+        final ExecutorService executor = deliveryExecutor;
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(DELIVERY_SHUTDOWN_MS, TimeUnit.MILLISECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            deliveryExecutor = null;
+        }
+    }
+
+    /**
+     * Creates a publisher of the lines appended to {@code file}.
+     *
+     * @param file   the log file to follow, already validated with {@link LogFiles#resolve(String)}
+     * @param from   the cursor to resume from, or {@code null} to receive only lines appended from now on
+     * @param mapper converts events to the type exposed to subscribers
+     * @param <T>    the type of the published items
+     * @return a publisher that completes when the service stops
+     */
+    public <T> Publisher<T> stream(Path file, LogCursor from, Function<LogStreamEvent, T> mapper) {
+        return subscriber -> {
+            final LogStreamSubscription<T> subscription = new LogStreamSubscription<>(subscriber, mapper,
+                    SUBSCRIBER_BUFFER_EVENTS, cancelled -> detach(file, cancelled), this::deliver);
+            subscriber.onSubscribe(subscription);
+            final LogFollower follower;
+            synchronized (followers) {
+                if (scheduler == null) {
+                    subscription.complete();
+                    return;
+                }
+                follower = followers.computeIfAbsent(file, LogFollower::new);
+                follower.reserve();
+            }
+            try {
+                // Reads the file: done outside the lock so that other subscriptions do not wait for it
+                follower.attach(subscription, from);
+            } catch (IOException e) {
+                LOGGER.warn("Cannot follow {}", file, e);
+                subscription.fail(e);
+            }
+        };
+    }
+
+    private void deliver(Runnable task) {
+        final ExecutorService executor = deliveryExecutor;
+        if (executor != null) {
+            try {
+                executor.execute(task);
+                return;
+            } catch (RejectedExecutionException e) {
+                // Stopped meanwhile: delivered below
+            }
+        }
+        // Once the service is stopped nothing is left to deliver but the completion signal
+        task.run();
+    }
+
+    // Called from subscriber threads, possibly while a follower is pushing events: take no lock
+    // here, empty followers are dropped by the polling thread
+    private void detach(Path file, LogStreamSubscription<?> subscription) {
+        final LogFollower follower = followers.get(file);
+        if (follower != null) {
+            follower.detach(subscription);
+        }
+    }
+
+    private void pollFollowers() {
+        final List<LogFollower> active;
+        synchronized (followers) {
+            followers.values().removeIf(follower -> !follower.hasSubscriptions());
+            active = new ArrayList<>(followers.values());
+        }
+        for (LogFollower follower : active) {
+            try {
+                follower.poll();
+            } catch (RuntimeException e) {
+                // A failing subscriber must not kill the shared polling thread
+                LOGGER.warn("Error while following {}", follower.getFile(), e);
+            }
+        }
+    }
+}
@@ -3,8 +3,21 @@ package org.jahia.community.external.tomcat.log.graphql;
 import graphql.annotations.annotationTypes.GraphQLDescription;
 import graphql.annotations.annotationTypes.GraphQLField;
 import graphql.annotations.annotationTypes.GraphQLName;
+import org.jahia.community.external.tomcat.log.LogCursor;
+import org.jahia.community.external.tomcat.log.LogEntry;
+import org.jahia.community.external.tomcat.log.LogEntryReader;
+import org.jahia.community.external.tomcat.log.LogFiles;
+import org.jahia.community.external.tomcat.log.LogHistograms;
+import org.jahia.community.external.tomcat.log.LogLineMatcher;
+import org.jahia.community.external.tomcat.log.LogLineReader;
+import org.jahia.community.external.tomcat.log.LogMetrics;
+import org.jahia.community.external.tomcat.log.LogSearcher;
+import org.jahia.community.external.tomcat.log.LogTailer;
+import org.jahia.community.external.tomcat.log.LogTimeRangeReader;
+import org.jahia.community.external.tomcat.log.LogTimestamps;
 import org.jahia.community.external.tomcat.log.TomcatLogDataSource;
 import org.jahia.community.external.tomcat.log.TomcatLogMountPointService;
+import org.jahia.community.external.tomcat.log.TomcatLogSearchService;
 import org.jahia.modules.graphql.provider.dxm.security.GraphQLRequiresPermission;
 import org.jahia.osgi.BundleUtils;
 import org.slf4j.Logger;
@@ -13,10 +26,17 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.file.Path;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
 
 @GraphQLName("TomcatLogProviderQuery")
 @GraphQLDescription("Tomcat Log Provider queries")
@@ -27,6 +47,11 @@ public class TomcatLogProviderQuery {
     private static final int MAX_TAIL_LINES = 5000;
     // 256 KB is ample for 200 typical log lines (~200 bytes each)
     private static final int TAIL_CHUNK_BYTES = 256 * 1024;
+    private static final int DEFAULT_SEARCH_RESULTS = 200;
+    private static final int MAX_SEARCH_RESULTS = 1000;
+    private static final long SEARCH_TIMEOUT_MS = 30_000;
+    // One week, the span histograms are kept for
+    private static final int MAX_BUCKET_MINUTES = 7 * 24 * 60;
 
     @GraphQLField
     @GraphQLName("settings")
@@ -52,15 +77,199 @@ public class TomcatLogProviderQuery {
         final File logFile = new File(logDir, "jahia.log");
         final int requestedLines = lines != null && lines > 0 ? lines : DEFAULT_TAIL_LINES;
         final int cappedLines = Math.min(requestedLines, MAX_TAIL_LINES);
-        try {
-            return tailFile(logFile, cappedLines);
+        try (LogMetrics.Timer timer = LogMetrics.time("query.tail")) {
+            return timer.succeeded(tailFile(logFile, cappedLines, timer));
         } catch (IOException e) {
             LOGGER.error("Cannot read {}", logFile.getAbsolutePath(), e);
             return Collections.emptyList();
         }
     }
 
-    private static List<String> tailFile(File file, int maxLines) throws IOException {
+    @GraphQLField
+    @GraphQLName("tailSince")
+    @GraphQLDescription("Returns the complete lines appended to jahia.log since the given cursor, with the cursor to pass on the next call")
+    @GraphQLRequiresPermission("tomcatLogProviderAdmin")
+    public GqlTailChunk logTailSince(
+            @GraphQLName("after") @GraphQLDescription("Opaque cursor returned by a previous call; omit to start with the last lines of the file") String after,
+            @GraphQLName("lines") @GraphQLDescription("Maximum number of lines to return; defaults to 200. Further appended lines are returned by the next call") Integer lines) {
+        final String logDir = TomcatLogDataSource.getTomcatLogPath();
+        if (logDir == null) {
+            LOGGER.warn("catalina.base system property is not set; cannot tail log file");
+            return new GqlTailChunk(Collections.emptyList(), after, false);
+        }
+        final File logFile = new File(logDir, "jahia.log");
+        final int requestedLines = lines != null && lines > 0 ? lines : DEFAULT_TAIL_LINES;
+        final int cappedLines = Math.min(requestedLines, MAX_TAIL_LINES);
+        try (LogMetrics.Timer timer = LogMetrics.time("query.tailSince")) {
+            // A malformed cursor decodes to null and simply restarts from the tail
+            final LogTailer.Chunk chunk = LogTailer.readAfter(logFile.toPath(), LogCursor.decode(after), cappedLines);
+            final String cursor = chunk.getCursor() != null ? chunk.getCursor().encode() : null;
+            return timer.succeeded(new GqlTailChunk(chunk.getLines(), cursor, chunk.isReset()));
+        } catch (IOException e) {
+            LOGGER.error("Cannot read {}", logFile.getAbsolutePath(), e);
+            return new GqlTailChunk(Collections.emptyList(), after, false);
+        }
+    }
+
+    @GraphQLField
+    @GraphQLName("lines")
+    @GraphQLDescription("Returns a page of lines of a log file, seeking through a cached sparse line index")
+    @GraphQLRequiresPermission("tomcatLogProviderAdmin")
+    public GqlLinesPage lines(
+            @GraphQLName("file") @GraphQLDescription("Log file path relative to the Tomcat log directory; defaults to jahia.log") String file,
+            @GraphQLName("fromLine") @GraphQLDescription("Zero-based number of the first line to return; defaults to 0") Long fromLine,
+            @GraphQLName("count") @GraphQLDescription("Number of lines to return; defaults to 200, capped at 5000") Integer count) {
+        final Path logFile = LogFiles.resolve(file != null ? file : "jahia.log");
+        final long first = fromLine != null && fromLine > 0 ? fromLine : 0;
+        if (logFile == null) {
+            LOGGER.warn("Cannot read lines of log file {}", file);
+            return new GqlLinesPage(first, Collections.emptyList(), 0);
+        }
+        final int requestedLines = count != null && count > 0 ? count : DEFAULT_TAIL_LINES;
+        try (LogMetrics.Timer timer = LogMetrics.time("query.lines")) {
+            final LogLineReader.Page page = LogLineReader.readLines(logFile, first, Math.min(requestedLines, MAX_TAIL_LINES));
+            return timer.succeeded(new GqlLinesPage(first, page.getLines(), page.getTotalLines()));
+        } catch (IOException e) {
+            LOGGER.error("Cannot read {}", logFile, e);
+            return new GqlLinesPage(first, Collections.emptyList(), 0);
+        }
+    }
+
+    @GraphQLField
+    @GraphQLName("search")
+    @GraphQLDescription("Searches every file under the Tomcat log directory, current and rotated, for matching lines")
+    @GraphQLRequiresPermission("tomcatLogProviderAdmin")
+    public GqlSearchResult search(
+            @GraphQLName("pattern") @GraphQLDescription("Text or regular expression to look for; omit to match every line") String pattern,
+            @GraphQLName("regex") @GraphQLDescription("Whether pattern is a regular expression; defaults to false") Boolean regex,
+            @GraphQLName("ignoreCase") @GraphQLDescription("Whether ASCII letters match regardless of case; defaults to false") Boolean ignoreCase,
+            @GraphQLName("level") @GraphQLDescription("Only return lines carrying this level, such as ERROR") String level,
+            @GraphQLName("files") @GraphQLDescription("Glob on file paths relative to the log directory, such as catalina* or archive/**; defaults to every file") String files,
+            @GraphQLName("context") @GraphQLDescription("Number of lines to return before and after each match; defaults to 0, capped at 10") Integer context,
+            @GraphQLName("limit") @GraphQLDescription("Number of matches after which the search stops; defaults to 200, capped at 1000") Integer limit) {
+        final Path root = LogFiles.getRoot();
+        if (root == null) {
+            LOGGER.warn("catalina.base system property is not set; cannot search log files");
+            return new GqlSearchResult(LogSearcher.Result.empty());
+        }
+        final LogLineMatcher matcher;
+        try {
+            matcher = LogLineMatcher.create(pattern, Boolean.TRUE.equals(regex), Boolean.TRUE.equals(ignoreCase), level);
+        } catch (PatternSyntaxException e) {
+            LOGGER.warn("Invalid search pattern {}: {}", pattern, e.getMessage());
+            return new GqlSearchResult(LogSearcher.Result.empty());
+        }
+        final TomcatLogSearchService service = BundleUtils.getOsgiService(TomcatLogSearchService.class, null);
+        if (service == null) {
+            LOGGER.warn("Tomcat log search service is not available; cannot search log files");
+            return new GqlSearchResult(LogSearcher.Result.empty());
+        }
+        final int requestedResults = limit != null && limit > 0 ? limit : DEFAULT_SEARCH_RESULTS;
+        try (LogMetrics.Timer timer = LogMetrics.time("query.search")) {
+            return timer.succeeded(new GqlSearchResult(service.search(root, files, matcher, context != null ? context : 0,
+                    Math.min(requestedResults, MAX_SEARCH_RESULTS), SEARCH_TIMEOUT_MS)));
+        } catch (IOException e) {
+            LOGGER.error("Cannot search {}", root, e);
+            return new GqlSearchResult(LogSearcher.Result.empty());
+        }
+    }
+
+    @GraphQLField
+    @GraphQLName("between")
+    @GraphQLDescription("Returns the lines of a log file written between two instants, binary-searching the file by timestamp and reading its dated rotations when the range spans them")
+    @GraphQLRequiresPermission("tomcatLogProviderAdmin")
+    public GqlTimeRange between(
+            @GraphQLName("file") @GraphQLDescription("Log file path relative to the Tomcat log directory; defaults to jahia.log") String file,
+            @GraphQLName("from") @GraphQLDescription("Start of the range, inclusive: an ISO-8601 date-time such as 2026-10-17T14:02, read in the server time zone when it has no offset") String from,
+            @GraphQLName("to") @GraphQLDescription("End of the range, inclusive, in the same format as from") String to,
+            @GraphQLName("limit") @GraphQLDescription("Maximum number of lines to return; defaults to 200, capped at 5000") Integer limit) {
+        final Path logFile = LogFiles.resolve(file != null ? file : "jahia.log");
+        if (logFile == null || from == null || to == null) {
+            LOGGER.warn("Cannot read time range of log file {}", file);
+            return new GqlTimeRange(LogTimeRangeReader.Result.empty());
+        }
+        final long fromMillis;
+        final long toMillis;
+        try {
+            fromMillis = LogTimestamps.parseBound(from);
+            toMillis = LogTimestamps.parseBound(to);
+        } catch (DateTimeParseException e) {
+            LOGGER.warn("Invalid time range {} - {}: {}", from, to, e.getMessage());
+            return new GqlTimeRange(LogTimeRangeReader.Result.empty());
+        }
+        final int requestedLines = limit != null && limit > 0 ? limit : DEFAULT_TAIL_LINES;
+        try (LogMetrics.Timer timer = LogMetrics.time("query.between")) {
+            return timer.succeeded(new GqlTimeRange(LogTimeRangeReader.readBetween(logFile, fromMillis, toMillis, Math.min(requestedLines, MAX_TAIL_LINES))));
+        } catch (IOException e) {
+            LOGGER.error("Cannot read {}", logFile, e);
+            return new GqlTimeRange(LogTimeRangeReader.Result.empty());
+        }
+    }
+
+    @GraphQLField
+    @GraphQLName("entries")
+    @GraphQLDescription("Returns the last entries of a log file parsed into fields, with stack traces and other continuation lines folded into their entry")
+    @GraphQLRequiresPermission("tomcatLogProviderAdmin")
+    public List<GqlLogEntry> entries(
+            @GraphQLName("file") @GraphQLDescription("Log file path relative to the Tomcat log directory; defaults to jahia.log") String file,
+            @GraphQLName("count") @GraphQLDescription("Number of entries to return; defaults to 200, capped at 5000") Integer count,
+            @GraphQLName("level") @GraphQLDescription("Only return entries of this level, such as ERROR") String level) {
+        final Path logFile = LogFiles.resolve(file != null ? file : "jahia.log");
+        if (logFile == null) {
+            LOGGER.warn("Cannot read entries of log file {}", file);
+            return Collections.emptyList();
+        }
+        final int requestedEntries = count != null && count > 0 ? count : DEFAULT_TAIL_LINES;
+        try (LogMetrics.Timer timer = LogMetrics.time("query.entries")) {
+            return timer.succeeded(LogEntryReader.tail(logFile, Math.min(requestedEntries, MAX_TAIL_LINES), level).stream()
+                    .map(GqlLogEntry::new).collect(Collectors.toList()));
+        } catch (IOException e) {
+            LOGGER.error("Cannot read {}", logFile, e);
+            return Collections.emptyList();
+        }
+    }
+
+    @GraphQLField
+    @GraphQLName("histogram")
+    @GraphQLDescription("Counts the entries of a log file per level and per time bucket, from counts kept in memory and updated with the lines appended since the previous call")
+    @GraphQLRequiresPermission("tomcatLogProviderAdmin")
+    public GqlHistogram histogram(
+            @GraphQLName("file") @GraphQLDescription("Log file path relative to the Tomcat log directory; defaults to jahia.log") String file,
+            @GraphQLName("from") @GraphQLDescription("Start of the range, inclusive: an ISO-8601 date-time such as 2026-10-17T14:02, read in the server time zone when it has no offset; defaults to the oldest entry kept") String from,
+            @GraphQLName("to") @GraphQLDescription("End of the range, inclusive, in the same format as from; defaults to the newest entry") String to,
+            @GraphQLName("bucketMinutes") @GraphQLDescription("Length of a bucket in minutes; defaults to 1, capped at one week") Integer bucketMinutes) {
+        final Path logFile = LogFiles.resolve(file != null ? file : "jahia.log");
+        if (logFile == null) {
+            LOGGER.warn("Cannot count entries of log file {}", file);
+            return new GqlHistogram(LogHistograms.Result.empty());
+        }
+        final long fromMillis;
+        final long toMillis;
+        try {
+            fromMillis = from != null ? LogTimestamps.parseBound(from) : Long.MIN_VALUE;
+            toMillis = to != null ? LogTimestamps.parseBound(to) : Long.MAX_VALUE;
+        } catch (DateTimeParseException e) {
+            LOGGER.warn("Invalid time range {} - {}: {}", from, to, e.getMessage());
+            return new GqlHistogram(LogHistograms.Result.empty());
+        }
+        final int minutes = bucketMinutes != null && bucketMinutes > 0 ? Math.min(bucketMinutes, MAX_BUCKET_MINUTES) : 1;
+        try (LogMetrics.Timer timer = LogMetrics.time("query.histogram")) {
+            return timer.succeeded(new GqlHistogram(LogHistograms.read(logFile, fromMillis, toMillis, minutes)));
+        } catch (IOException e) {
+            LOGGER.error("Cannot read {}", logFile, e);
+            return new GqlHistogram(LogHistograms.Result.empty());
+        }
+    }
+
+    private static String formatTime(long millis) {
+        return millis == LogTimestamps.NONE ? null : Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()).toOffsetDateTime().toString();
+    }
+
+    private static List<GqlLevelCount> toLevelCounts(Map<String, Long> counts) {
+        return counts.entrySet().stream().map(count -> new GqlLevelCount(count.getKey(), count.getValue())).collect(Collectors.toList());
+    }
+
+    private static List<String> tailFile(File file, int maxLines, LogMetrics.Timer timer) throws IOException {
         if (!file.exists() || file.length() == 0) {
             return Collections.emptyList();
         }
@@ -70,6 +279,7 @@ public class TomcatLogProviderQuery {
         try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
             raf.seek(fileLength - chunkSize);
             raf.readFully(buf);
+            timer.addBytes(chunkSize);
         }
         String[] all = new String(buf, StandardCharsets.UTF_8).split("\n", -1);
         // When we start mid-file the first entry is a partial line — skip it
@@ -78,6 +288,339 @@ public class TomcatLogProviderQuery {
         return Arrays.asList(Arrays.copyOfRange(all, from, all.length));
     }
 
+    @GraphQLName("TomcatLogTailChunk")
+    @GraphQLDescription("Lines appended to a log file since a cursor")
+    public static class GqlTailChunk {
+
+        private final List<String> lines;
+        private final String cursor;
+        private final boolean reset;
+
+        public GqlTailChunk(List<String> lines, String cursor, boolean reset) {
+            this.lines = lines;
+            this.cursor = cursor;
+            this.reset = reset;
+        }
+
+        @GraphQLField
+        @GraphQLName("lines")
+        @GraphQLDescription("Complete lines in chronological order")
+        public List<String> getLines() {
+            return lines;
+        }
+
+        @GraphQLField
+        @GraphQLName("cursor")
+        @GraphQLDescription("Opaque cursor to pass as 'after' on the next call")
+        public String getCursor() {
+            return cursor;
+        }
+
+        @GraphQLField
+        @GraphQLName("reset")
+        @GraphQLDescription("True when the lines do not follow the previous cursor (first call, log rotation, truncation or lines skipped); previously displayed lines should be discarded")
+        public boolean isReset() {
+            return reset;
+        }
+    }
+
+    @GraphQLName("TomcatLogLinesPage")
+    @GraphQLDescription("A page of lines of a log file")
+    public static class GqlLinesPage {
+
+        private final long fromLine;
+        private final List<String> lines;
+        private final long totalLines;
+
+        public GqlLinesPage(long fromLine, List<String> lines, long totalLines) {
+            this.fromLine = fromLine;
+            this.lines = lines;
+            this.totalLines = totalLines;
+        }
+
+        @GraphQLField
+        @GraphQLName("fromLine")
+        @GraphQLDescription("Zero-based number of the first returned line")
+        public long getFromLine() {
+            return fromLine;
+        }
+
+        @GraphQLField
+        @GraphQLName("lines")
+        @GraphQLDescription("The lines of the page")
+        public List<String> getLines() {
+            return lines;
+        }
+
+        @GraphQLField
+        @GraphQLName("totalLines")
+        @GraphQLDescription("Number of lines in the file when the page was read")
+        public long getTotalLines() {
+            return totalLines;
+        }
+    }
+
+    @GraphQLName("TomcatLogSearchResult")
+    @GraphQLDescription("Lines matching a search")
+    public static class GqlSearchResult {
+
+        private final LogSearcher.Result result;
+
+        public GqlSearchResult(LogSearcher.Result result) {
+            this.result = result;
+        }
+
+        @GraphQLField
+        @GraphQLName("matches")
+        @GraphQLDescription("Matching lines, ordered by file then line")
+        public List<GqlSearchMatch> getMatches() {
+            return result.getMatches().stream().map(GqlSearchMatch::new).collect(Collectors.toList());
+        }
+
+        @GraphQLField
+        @GraphQLName("filesSearched")
+        @GraphQLDescription("Number of files selected by the glob")
+        public int getFilesSearched() {
+            return result.getFilesSearched();
+        }
+
+        @GraphQLField
+        @GraphQLName("truncated")
+        @GraphQLDescription("True when the search stopped at the match limit or the time budget")
+        public boolean isTruncated() {
+            return result.isTruncated();
+        }
+    }
+
+    @GraphQLName("TomcatLogSearchMatch")
+    @GraphQLDescription("A line matching a search")
+    public static class GqlSearchMatch {
+
+        private final LogSearcher.Match match;
+
+        public GqlSearchMatch(LogSearcher.Match match) {
+            this.match = match;
+        }
+
+        @GraphQLField
+        @GraphQLName("file")
+        @GraphQLDescription("File path relative to the log directory")
+        public String getFile() {
+            return match.getFile();
+        }
+
+        @GraphQLField
+        @GraphQLName("line")
+        @GraphQLDescription("Zero-based line number, usable as fromLine of the lines query")
+        public long getLine() {
+            return match.getLine();
+        }
+
+        @GraphQLField
+        @GraphQLName("offset")
+        @GraphQLDescription("Byte offset of the start of the line")
+        public long getOffset() {
+            return match.getOffset();
+        }
+
+        @GraphQLField
+        @GraphQLName("text")
+        @GraphQLDescription("The matching line")
+        public String getText() {
+            return match.getText();
+        }
+
+        @GraphQLField
+        @GraphQLName("before")
+        @GraphQLDescription("Lines preceding the match")
+        public List<String> getBefore() {
+            return match.getBefore();
+        }
+
+        @GraphQLField
+        @GraphQLName("after")
+        @GraphQLDescription("Lines following the match")
+        public List<String> getAfter() {
+            return match.getAfter();
+        }
+    }
+
+    @GraphQLName("TomcatLogTimeRange")
+    @GraphQLDescription("Lines of a log file written within a time range")
+    public static class GqlTimeRange {
+
+        private final LogTimeRangeReader.Result result;
+
+        public GqlTimeRange(LogTimeRangeReader.Result result) {
+            this.result = result;
+        }
+
+        @GraphQLField
+        @GraphQLName("files")
+        @GraphQLDescription("Names of the files read, oldest first")
+        public List<String> getFiles() {
+            return result.getFiles();
+        }
+
+        @GraphQLField
+        @GraphQLName("lines")
+        @GraphQLDescription("Lines in chronological order, with the continuation lines of the entries in range")
+        public List<String> getLines() {
+            return result.getLines();
+        }
+
+        @GraphQLField
+        @GraphQLName("truncated")
+        @GraphQLDescription("True when the line limit was reached before the end of the range")
+        public boolean isTruncated() {
+            return result.isTruncated();
+        }
+    }
+
+    @GraphQLName("TomcatLogEntry")
+    @GraphQLDescription("A log entry: a line starting with a timestamp and the lines that follow it")
+    public static class GqlLogEntry {
+
+        private final LogEntry entry;
+
+        public GqlLogEntry(LogEntry entry) {
+            this.entry = entry;
+        }
+
+        @GraphQLField
+        @GraphQLName("timestamp")
+        @GraphQLDescription("ISO-8601 date-time of the entry with the server offset; null for lines before the first timestamp of the file")
+        public String getTimestamp() {
+            return formatTime(entry.getTimestamp());
+        }
+
+        @GraphQLField
+        @GraphQLName("level")
+        @GraphQLDescription("Level as written, such as ERROR or SEVERE")
+        public String getLevel() {
+            return entry.getLevel();
+        }
+
+        @GraphQLField
+        @GraphQLName("thread")
+        @GraphQLDescription("Bracketed field after the level: the thread in Tomcat logs, the short logger name in the default Jahia layout")
+        public String getThread() {
+            return entry.getThread();
+        }
+
+        @GraphQLField
+        @GraphQLName("logger")
+        @GraphQLDescription("Logger written after the bracketed field, such as a class and method name")
+        public String getLogger() {
+            return entry.getLogger();
+        }
+
+        @GraphQLField
+        @GraphQLName("message")
+        @GraphQLDescription("Message on the first line of the entry")
+        public String getMessage() {
+            return entry.getMessage();
+        }
+
+        @GraphQLField
+        @GraphQLName("continuation")
+        @GraphQLDescription("Following lines of the entry, such as a stack trace")
+        public List<String> getContinuation() {
+            return entry.getContinuation();
+        }
+
+        @GraphQLField
+        @GraphQLName("omittedLines")
+        @GraphQLDescription("Number of continuation lines left out past the first 1000")
+        public int getOmittedLines() {
+            return entry.getOmittedLines();
+        }
+    }
+
+    @GraphQLName("TomcatLogHistogram")
+    @GraphQLDescription("Entries of a log file counted per level over time")
+    public static class GqlHistogram {
+
+        private final LogHistograms.Result result;
+
+        public GqlHistogram(LogHistograms.Result result) {
+            this.result = result;
+        }
+
+        @GraphQLField
+        @GraphQLName("buckets")
+        @GraphQLDescription("Time buckets holding entries, oldest first")
+        public List<GqlHistogramBucket> getBuckets() {
+            return result.getBuckets().stream().map(GqlHistogramBucket::new).collect(Collectors.toList());
+        }
+
+        @GraphQLField
+        @GraphQLName("totals")
+        @GraphQLDescription("Number of entries in the range per level, most severe first")
+        public List<GqlLevelCount> getTotals() {
+            return toLevelCounts(result.getTotals());
+        }
+    }
+
+    @GraphQLName("TomcatLogHistogramBucket")
+    @GraphQLDescription("Entries counted per level in a time bucket")
+    public static class GqlHistogramBucket {
+
+        private final LogHistograms.Bucket bucket;
+
+        public GqlHistogramBucket(LogHistograms.Bucket bucket) {
+            this.bucket = bucket;
+        }
+
+        @GraphQLField
+        @GraphQLName("start")
+        @GraphQLDescription("ISO-8601 date-time of the start of the bucket with the server offset")
+        public String getStart() {
+            return formatTime(bucket.getStart());
+        }
+
+        @GraphQLField
+        @GraphQLName("total")
+        @GraphQLDescription("Number of entries in the bucket")
+        public long getTotal() {
+            return bucket.getTotal();
+        }
+
+        @GraphQLField
+        @GraphQLName("counts")
+        @GraphQLDescription("Number of entries per level, most severe first")
+        public List<GqlLevelCount> getCounts() {
+            return toLevelCounts(bucket.getCounts());
+        }
+    }
+
+    @GraphQLName("TomcatLogLevelCount")
+    @GraphQLDescription("Number of entries of a level")
+    public static class GqlLevelCount {
+
+        private final String level;
+        private final long count;
+
+        public GqlLevelCount(String level, long count) {
+            this.level = level;
+            this.count = count;
+        }
+
+        @GraphQLField
+        @GraphQLName("level")
+        @GraphQLDescription("Level as written, such as ERROR or SEVERE")
+        public String getLevel() {
+            return level;
+        }
+
+        @GraphQLField
+        @GraphQLName("count")
+        @GraphQLDescription("Number of entries")
+        public long getCount() {
+            return count;
+        }
+    }
+
     @GraphQLName("TomcatLogSettings")
     @GraphQLDescription("Tomcat Log Provider settings")
     public static class GqlSettings {
@@ -0,0 +1,101 @@
+package org.jahia.community.external.tomcat.log.graphql;
+
+import graphql.annotations.annotationTypes.GraphQLDescription;
+import graphql.annotations.annotationTypes.GraphQLField;
+import graphql.annotations.annotationTypes.GraphQLName;
+import graphql.annotations.annotationTypes.GraphQLTypeExtension;
+import org.jahia.community.external.tomcat.log.LogCursor;
+import org.jahia.community.external.tomcat.log.LogFiles;
+import org.jahia.community.external.tomcat.log.LogStreamEvent;
+import org.jahia.community.external.tomcat.log.TomcatLogStreamService;
+import org.jahia.modules.graphql.provider.dxm.DXGraphQLProvider;
+import org.jahia.modules.graphql.provider.dxm.security.GraphQLRequiresPermission;
+import org.jahia.osgi.BundleUtils;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.List;
+
+@GraphQLTypeExtension(DXGraphQLProvider.Subscription.class)
+@GraphQLDescription("Tomcat Log Provider subscriptions")
+public class TomcatLogProviderSubscriptionExtension {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TomcatLogProviderSubscriptionExtension.class);
+
+    private TomcatLogProviderSubscriptionExtension() {
+    }
+
+    @GraphQLField
+    @GraphQLName("tomcatLogStream")
+    @GraphQLDescription("Pushes the lines appended to a Tomcat log file as soon as they are written")
+    @GraphQLRequiresPermission("tomcatLogProviderAdmin")
+    public static Publisher<GqlLogStreamEvent> tomcatLogStream(
+            @GraphQLName("file") @GraphQLDescription("Log file path relative to the Tomcat log directory; defaults to jahia.log") String file,
+            @GraphQLName("fromCursor") @GraphQLDescription("Cursor returned by tailSince or a previous event to resume from; omit to receive only new lines") String fromCursor) {
+        final Path logFile = LogFiles.resolve(file != null ? file : "jahia.log");
+        final TomcatLogStreamService service = BundleUtils.getOsgiService(TomcatLogStreamService.class, null);
+        if (logFile == null || service == null) {
+            LOGGER.warn("Cannot stream log file {}", file);
+            return TomcatLogProviderSubscriptionExtension::emptyStream;
+        }
+        return service.stream(logFile, LogCursor.decode(fromCursor), GqlLogStreamEvent::new);
+    }
+
+    private static void emptyStream(Subscriber<? super GqlLogStreamEvent> subscriber) {
+        subscriber.onSubscribe(new Subscription() {
+            @Override
+            public void request(long n) {
+                // nothing to emit
+            }
+
+            @Override
+            public void cancel() {
+                // nothing to release
+            }
+        });
+        subscriber.onComplete();
+    }
+
+    @GraphQLName("TomcatLogStreamEvent")
+    @GraphQLDescription("Lines appended to a followed log file")
+    public static class GqlLogStreamEvent {
+
+        private final LogStreamEvent event;
+
+        public GqlLogStreamEvent(LogStreamEvent event) {
+            this.event = event;
+        }
+
+        @GraphQLField
+        @GraphQLName("lines")
+        @GraphQLDescription("Complete lines in chronological order")
+        public List<String> getLines() {
+            return event.getLines();
+        }
+
+        @GraphQLField
+        @GraphQLName("cursor")
+        @GraphQLDescription("Cursor right after the last line, usable with tailSince or to resubscribe")
+        public String getCursor() {
+            return event.getCursor() != null ? event.getCursor().encode() : null;
+        }
+
+        @GraphQLField
+        @GraphQLName("reset")
+        @GraphQLDescription("True when the lines do not follow the previous event (log rotation or truncation)")
+        public boolean isReset() {
+            return event.isReset();
+        }
+
+        @GraphQLField
+        @GraphQLName("dropped")
+        @GraphQLDescription("Number of lines discarded before this event because the subscriber did not keep up")
+        public int getDropped() {
+            return event.getDropped();
+        }
+    }
+}
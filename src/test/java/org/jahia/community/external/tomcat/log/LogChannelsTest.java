@@ -0,0 +1,235 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("LogChannels decompressed views of gzip-rotated logs")
+class LogChannelsTest {
+
+    private static final String CATALINA_BASE = "catalina.base";
+
+    @TempDir
+    Path tempDir;
+
+    private String previousCatalinaBase;
+    private Path logs;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        previousCatalinaBase = System.getProperty(CATALINA_BASE);
+        System.setProperty(CATALINA_BASE, tempDir.toString());
+        logs = Files.createDirectories(tempDir.resolve("logs"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (previousCatalinaBase == null) {
+            System.clearProperty(CATALINA_BASE);
+        } else {
+            System.setProperty(CATALINA_BASE, previousCatalinaBase);
+        }
+    }
+
+    private static String lines(int from, int to) {
+        return IntStream.range(from, to)
+                .mapToObj(i -> "2026-10-17 10:00:00,000: INFO  [Worker] - line-" + i)
+                .collect(Collectors.joining("\n", "", "\n"));
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private Path writeGzip(String name, String content) throws IOException {
+        return Files.write(logs.resolve(name), gzip(content));
+    }
+
+    private static String read(SeekableByteChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        channel.position(position);
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // fill the buffer
+        }
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("reads the uncompressed content at any position, across chunk boundaries")
+    void open_randomAccess() throws IOException {
+        String content = lines(0, 100_000);
+        Path file = writeGzip("catalina.2026-10-17.log.gz", content);
+
+        assertThat(LogChannels.readAttributes(file).size()).isEqualTo((long) content.length());
+        try (SeekableByteChannel channel = LogChannels.open(file)) {
+            assertThat(channel.size()).isEqualTo((long) content.length());
+            assertThat(read(channel, GzipIndex.CHUNK_BYTES - 10, 20)).isEqualTo(content.substring(GzipIndex.CHUNK_BYTES - 10, GzipIndex.CHUNK_BYTES + 10));
+            assertThat(read(channel, 0, 30)).isEqualTo(content.substring(0, 30));
+            assertThat(read(channel, content.length() - 5, 100)).isEqualTo(content.substring(content.length() - 5));
+            ByteBuffer past = ByteBuffer.allocate(1);
+            assertThat(channel.position(content.length()).read(past)).isEqualTo(-1);
+        }
+        assertThat(GzipIndex.forFile(file, Files.readAttributes(file, BasicFileAttributes.class)).getChunkCount())
+                .isEqualTo((content.length() + GzipIndex.CHUNK_BYTES - 1) / GzipIndex.CHUNK_BYTES);
+    }
+
+    @Test
+    @DisplayName("stores the chunks and their index in the cache directory")
+    void open_storesIndexInCacheDirectory() throws IOException {
+        Path file = writeGzip("jahia.log.2026-10-17.gz", lines(0, 10));
+
+        LogChannels.open(file).close();
+
+        assertThat(GzipIndex.getCacheDirectory().startsWith(tempDir)).isTrue();
+        try (Stream<Path> entries = Files.list(GzipIndex.getCacheDirectory())) {
+            assertThat(entries.map(entry -> entry.getFileName().toString()))
+                    .anyMatch((String name) -> name.endsWith(".index"))
+                    .anyMatch((String name) -> name.endsWith(".chunks"))
+                    .noneMatch((String name) -> name.endsWith(".tmp"));
+        }
+    }
+
+    @Test
+    @DisplayName("drops the indexes of deleted files, then the least recently used ones over the size cap")
+    void trimCacheDirectory_evictsLeastRecentlyUsed() throws IOException {
+        Path oldest = writeGzip("catalina.2026-10-12.log.gz", lines(0, 1000));
+        Path recent = writeGzip("catalina.2026-10-13.log.gz", lines(1000, 2000));
+        Path deleted = writeGzip("catalina.2026-10-14.log.gz", lines(2000, 3000));
+        for (Path file : new Path[]{oldest, recent, deleted}) {
+            LogChannels.open(file).close();
+        }
+        Path directory = GzipIndex.getCacheDirectory();
+        Path oldestIndex = indexFile(oldest);
+        Path recentIndex = indexFile(recent);
+        Path deletedIndex = indexFile(deleted);
+        Files.setLastModifiedTime(oldestIndex, FileTime.fromMillis(System.currentTimeMillis() - 3_600_000));
+        Files.delete(deleted);
+
+        GzipIndex.trimCacheDirectory(directory, Files.size(recentIndex) + Files.size(chunkFile(recentIndex)), null);
+
+        assertThat(Files.exists(recentIndex)).isTrue();
+        assertThat(Files.exists(chunkFile(recentIndex))).isTrue();
+        assertThat(Files.exists(oldestIndex)).isFalse();
+        assertThat(Files.exists(chunkFile(oldestIndex))).isFalse();
+        assertThat(Files.exists(deletedIndex)).isFalse();
+        assertThat(Files.exists(chunkFile(deletedIndex))).isFalse();
+        // An evicted index still cached in memory is built again
+        try (SeekableByteChannel channel = LogChannels.open(oldest)) {
+            assertThat(read(channel, 0, 30)).isEqualTo(lines(0, 1).substring(0, 30));
+        }
+        assertThat(Files.exists(oldestIndex)).isTrue();
+    }
+
+    private static Path indexFile(Path file) throws IOException {
+        return GzipIndex.getCacheDirectory().resolve(GzipIndex.key(Files.readAttributes(file, BasicFileAttributes.class)) + ".index");
+    }
+
+    private static Path chunkFile(Path indexFile) {
+        String name = indexFile.getFileName().toString();
+        return indexFile.resolveSibling(name.substring(0, name.length() - ".index".length()) + ".chunks");
+    }
+
+    @Test
+    @DisplayName("tail, paging and search read the decompressed lines")
+    void readers_workOnGzip() throws IOException {
+        Path file = writeGzip("catalina.2026-10-16.log.gz", lines(0, 50_000));
+
+        assertThat(LogTailer.tail(file, 2).getLines()).containsExactly(
+                "2026-10-17 10:00:00,000: INFO  [Worker] - line-49998", "2026-10-17 10:00:00,000: INFO  [Worker] - line-49999");
+        assertThat(LogLineReader.readLines(file, 30_000, 1).getLines()).containsExactly("2026-10-17 10:00:00,000: INFO  [Worker] - line-30000");
+        LogSearcher.Result result = LogSearcher.search(logs, "*.gz", LogLineMatcher.create("line-42424", false, false, null), 0, 10, 10_000, ForkJoinPool.commonPool());
+        assertThat(result.getMatches()).hasSize(1);
+        assertThat(result.getMatches().get(0).getLine()).isEqualTo(42_424L);
+    }
+
+    @Test
+    @DisplayName("search, histograms and sequential reads inflate the archive without indexing it")
+    void sequentialReaders_doNotIndex() throws IOException {
+        String content = lines(0, 50_000);
+        Path file = writeGzip("catalina.2026-10-15.log.gz", content);
+
+        try (SeekableByteChannel channel = LogChannels.openSequential(file)) {
+            assertThat(read(channel, 10, 20)).isEqualTo(content.substring(10, 30));
+            assertThat(read(channel, GzipIndex.CHUNK_BYTES, 20)).isEqualTo(content.substring(GzipIndex.CHUNK_BYTES, GzipIndex.CHUNK_BYTES + 20));
+            assertThat(read(channel, 0, 30)).isEqualTo(content.substring(0, 30));
+            assertThat(channel.position(content.length()).read(ByteBuffer.allocate(1))).isEqualTo(-1);
+        }
+        LogSearcher.Result result = LogSearcher.search(logs, "*.gz", LogLineMatcher.create("line-42424", false, false, null), 2, 10, 10_000, ForkJoinPool.commonPool());
+        assertThat(result.getMatches()).hasSize(1);
+        assertThat(result.getMatches().get(0).getBefore()).containsExactly(
+                "2026-10-17 10:00:00,000: INFO  [Worker] - line-42422", "2026-10-17 10:00:00,000: INFO  [Worker] - line-42423");
+        assertThat(LogHistograms.read(file, 0, Long.MAX_VALUE, 60).getTotals().get("INFO")).isEqualTo(50_000L);
+        assertThat(LogChannels.readAttributes(file).size()).isEqualTo((long) content.length());
+
+        assertThat(Files.exists(GzipIndex.getCacheDirectory())).isFalse();
+    }
+
+    @Test
+    @DisplayName("takes the uncompressed size from the trailer, or counts it when the trailer cannot be trusted")
+    void readAttributes_uncompressedSize() throws IOException {
+        // Random digits compress poorly, so that the start of the file inflated to check the trailer is not all of it
+        Random random = new Random(42);
+        String noisy = IntStream.range(0, 60_000)
+                .mapToObj(i -> "2026-10-17 10:00:00,000: INFO  [Worker] - " + random.nextLong() + random.nextLong() + random.nextLong())
+                .collect(Collectors.joining("\n", "", "\n"));
+        Path single = writeGzip("catalina.2026-10-10.log.gz", noisy);
+        assertThat(Files.size(single)).isGreaterThan(1024L * 1024);
+        Path concatenated = writeGzip("catalina.2026-10-11.log.gz", noisy);
+        Files.write(concatenated, gzip(lines(0, 3)), StandardOpenOption.APPEND);
+
+        assertThat(LogChannels.readAttributes(single).size()).isEqualTo((long) noisy.length());
+        // The trailer only holds the size of the small last member
+        assertThat(LogChannels.readAttributes(concatenated).size()).isEqualTo((long) (noisy.length() + lines(0, 3).length()));
+    }
+
+    @Test
+    @DisplayName("reads files made of several concatenated gzip members")
+    void open_concatenatedMembers() throws IOException {
+        Path file = logs.resolve("catalina.out.gz");
+        Files.write(file, gzip(lines(0, 3)));
+        Files.write(file, gzip(lines(3, 5)), StandardOpenOption.APPEND);
+
+        try (SeekableByteChannel channel = LogChannels.open(file)) {
+            assertThat(read(channel, 0, (int) channel.size())).isEqualTo(lines(0, 5));
+        }
+    }
+
+    @Test
+    @DisplayName("fails on a .gz file that is not in gzip format, and reads other files as they are")
+    void open_notGzip() throws IOException {
+        Path fake = Files.write(logs.resolve("fake.gz"), "plain text\n".getBytes(StandardCharsets.UTF_8));
+        Path plain = Files.write(logs.resolve("catalina.out"), "plain text\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> LogChannels.open(fake)).isInstanceOf(IOException.class);
+        try (SeekableByteChannel channel = LogChannels.open(plain)) {
+            assertThat(read(channel, 0, 100)).isEqualTo("plain text\n");
+        }
+    }
+}
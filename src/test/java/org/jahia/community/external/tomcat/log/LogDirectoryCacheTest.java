@@ -0,0 +1,144 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LogDirectoryCache watch-invalidated directory metadata")
+class LogDirectoryCacheTest {
+
+    // Polling watch services (e.g. on macOS) may take several seconds to report changes
+    private static final long TIMEOUT_MS = 30_000;
+
+    @TempDir
+    Path tempDir;
+
+    private Path logs;
+    private LogDirectoryCache cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        logs = Files.createDirectories(tempDir.resolve("logs")).toRealPath();
+        Files.write(logs.resolve("jahia.log"), "hello\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(logs.resolve("catalina.out"), "started\n".getBytes(StandardCharsets.UTF_8));
+        cache = new LogDirectoryCache(logs, name -> name.endsWith(".png") ? "image/png" : "text/plain");
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.close();
+    }
+
+    private static List<String> names(List<LogDirectoryCache.Entry> entries) {
+        return entries.stream().map(LogDirectoryCache.Entry::getName).collect(Collectors.toList());
+    }
+
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        return condition.getAsBoolean();
+    }
+
+    private LogDirectoryCache.Entry lookup(String path) {
+        try {
+            return cache.lookup(path);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    @DisplayName("lists a directory by name with the size, modification time and MIME type of its files")
+    void list_readsMetadata() throws IOException {
+        Files.write(logs.resolve("graph.png"), new byte[]{1, 2, 3});
+
+        List<LogDirectoryCache.Entry> entries = cache.list("/");
+
+        assertThat(names(entries)).containsExactly("catalina.out", "graph.png", "jahia.log");
+        LogDirectoryCache.Entry jahiaLog = entries.get(2);
+        assertThat(jahiaLog.isDirectory()).isFalse();
+        assertThat(jahiaLog.getSize()).isEqualTo(6L);
+        assertThat(jahiaLog.getLastModified()).isEqualTo(Files.getLastModifiedTime(logs.resolve("jahia.log")).toMillis());
+        assertThat(jahiaLog.getMimeType()).isEqualTo("text/plain");
+        assertThat(entries.get(1).getMimeType()).isEqualTo("image/png");
+        assertThat(cache.lookup("").getName()).isEqualTo("logs");
+        assertThat(cache.lookup("/").isDirectory()).isTrue();
+        assertThat(cache.lookup("/missing.log")).isNull();
+        assertThat(cache.list("/jahia.log")).isNull();
+    }
+
+    @Test
+    @DisplayName("picks up created, deleted and modified files from watch events")
+    void list_followsChanges() throws IOException, InterruptedException {
+        assertThat(names(cache.list("/"))).containsExactly("catalina.out", "jahia.log");
+
+        Files.write(logs.resolve("jahia.log.1"), "rotated\n".getBytes(StandardCharsets.UTF_8));
+        assertThat(await(() -> lookup("/jahia.log.1") != null)).isTrue();
+
+        Files.delete(logs.resolve("catalina.out"));
+        assertThat(await(() -> lookup("/catalina.out") == null)).isTrue();
+
+        Files.write(logs.resolve("jahia.log"), "world\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        assertThat(await(() -> lookup("/jahia.log").getSize() == 12L)).isTrue();
+
+        assertThat(names(cache.list("/"))).containsExactly("jahia.log", "jahia.log.1");
+    }
+
+    @Test
+    @DisplayName("serves subdirectories and forgets them when they are removed")
+    void lookup_subdirectory() throws IOException, InterruptedException {
+        Path archive = Files.createDirectories(logs.resolve("archive"));
+        Files.write(archive.resolve("old.log"), "old\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(cache.lookup("/archive").isDirectory()).isTrue();
+        assertThat(names(cache.list("archive"))).containsExactly("old.log");
+        assertThat(cache.lookup("/archive/old.log").getSize()).isEqualTo(4L);
+        assertThat(cache.lookup("/jahia.log/old.log")).isNull();
+
+        Files.delete(archive.resolve("old.log"));
+        Files.delete(archive);
+        assertThat(await(() -> lookup("/archive") == null)).isTrue();
+        assertThat(cache.lookup("/archive/old.log")).isNull();
+        assertThat(cache.list("/archive")).isNull();
+    }
+
+    @Test
+    @DisplayName("does not expose paths or symlinks leading outside the log directory")
+    void lookup_staysWithinRoot() throws IOException {
+        Path secret = Files.write(tempDir.resolve("secret.txt"), "secret\n".getBytes(StandardCharsets.UTF_8));
+        Files.createSymbolicLink(logs.resolve("escape.log"), secret);
+        Files.createSymbolicLink(logs.resolve("current.log"), logs.resolve("jahia.log"));
+
+        assertThat(cache.lookup("/../secret.txt")).isNull();
+        assertThat(cache.lookup("/./jahia.log")).isNull();
+        assertThat(cache.lookup("/escape.log")).isNull();
+        assertThat(cache.lookup("/current.log").getSize()).isEqualTo(6L);
+        assertThat(names(cache.list("/"))).containsExactly("catalina.out", "current.log", "jahia.log");
+    }
+
+    @Test
+    @DisplayName("reads the disk directly once closed")
+    void close_stopsCaching() throws IOException {
+        assertThat(cache.lookup("/jahia.log")).isNotNull();
+
+        cache.close();
+        Files.delete(logs.resolve("jahia.log"));
+
+        assertThat(cache.lookup("/jahia.log")).isNull();
+    }
+}
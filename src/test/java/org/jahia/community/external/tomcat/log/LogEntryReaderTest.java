@@ -0,0 +1,125 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LogEntryReader parsed log entries")
+class LogEntryReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path write(String content) throws IOException {
+        return Files.write(tempDir.resolve("jahia.log"), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long millis(String localDateTime) {
+        return LocalDateTime.parse(localDateTime).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @Test
+    @DisplayName("splits Jahia and Tomcat lines into timestamp, level, thread, logger and message")
+    void tail_parsesFields() throws IOException {
+        Path file = write("2026-10-18 14:02:03,456: ERROR [JCRSessionWrapper] - Cannot save node\n"
+                + "18-Oct-2026 14:02:04.001 SEVERE [main] org.apache.catalina.core.StandardContext.startInternal One or more listeners failed\n"
+                + "2026-10-18T14:02:05.000 INFO  [pool-1-thread-3] org.jahia.bin.Jahia: Started - in 3s\n");
+
+        List<LogEntry> entries = LogEntryReader.tail(file, 10, null);
+
+        assertThat(entries).hasSize(3);
+        LogEntry jahia = entries.get(0);
+        assertThat(jahia.getTimestamp()).isEqualTo(millis("2026-10-18T14:02:03.456"));
+        assertThat(jahia.getLevel()).isEqualTo("ERROR");
+        assertThat(jahia.getThread()).isEqualTo("JCRSessionWrapper");
+        assertThat(jahia.getLogger()).isNull();
+        assertThat(jahia.getMessage()).isEqualTo("Cannot save node");
+        LogEntry tomcat = entries.get(1);
+        assertThat(tomcat.getTimestamp()).isEqualTo(millis("2026-10-18T14:02:04.001"));
+        assertThat(tomcat.getLevel()).isEqualTo("SEVERE");
+        assertThat(tomcat.getThread()).isEqualTo("main");
+        assertThat(tomcat.getLogger()).isEqualTo("org.apache.catalina.core.StandardContext.startInternal");
+        assertThat(tomcat.getMessage()).isEqualTo("One or more listeners failed");
+        LogEntry named = entries.get(2);
+        assertThat(named.getLevel()).isEqualTo("INFO");
+        assertThat(named.getThread()).isEqualTo("pool-1-thread-3");
+        assertThat(named.getLogger()).isEqualTo("org.jahia.bin.Jahia");
+        assertThat(named.getMessage()).isEqualTo("Started - in 3s");
+    }
+
+    @Test
+    @DisplayName("folds stack traces into their entry and leaves out the line still being written")
+    void tail_foldsContinuationLines() throws IOException {
+        Path file = write("Using CATALINA_BASE: /opt/tomcat\n"
+                + "2026-10-18 14:02:03,456: ERROR [Render] - Failed\r\n"
+                + "java.lang.IllegalStateException: boom\n"
+                + "\tat org.jahia.Foo.bar(Foo.java:12)\n"
+                + "2026-10-18 14:02:04,000: WARN  [Render] - Slow\n"
+                + "2026-10-18 14:02:05,000: INFO  [Render] - Still writ");
+
+        List<LogEntry> entries = LogEntryReader.tail(file, 10, null);
+
+        assertThat(entries).hasSize(3);
+        assertThat(entries.get(0).getTimestamp()).isEqualTo(LogTimestamps.NONE);
+        assertThat(entries.get(0).getMessage()).isEqualTo("Using CATALINA_BASE: /opt/tomcat");
+        assertThat(entries.get(1).getMessage()).isEqualTo("Failed");
+        assertThat(entries.get(1).getContinuation()).containsExactly(
+                "java.lang.IllegalStateException: boom", "\tat org.jahia.Foo.bar(Foo.java:12)");
+        assertThat(entries.get(2).getMessage()).isEqualTo("Slow");
+        assertThat(entries.get(2).getContinuation()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("returns the last entries of a level, across windows and with continuations split by a window")
+    void tail_levelFilterAcrossWindows() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            content.append("2026-10-18 10:00:00,000: ").append(i % 100 == 0 ? "ERROR" : "INFO ").append(" [Worker] - entry-").append(i).append('\n');
+            if (i % 100 == 0) {
+                for (int frame = 0; frame < 50; frame++) {
+                    content.append("\tat org.jahia.Frame").append(frame).append(".call(Frame.java:1)\n");
+                }
+            }
+        }
+        Path file = write(content.toString());
+        assertThat(Files.size(file)).isGreaterThan(2L * LogTailer.WINDOW_BYTES);
+
+        List<LogEntry> errors = LogEntryReader.tail(file, 60, "error");
+
+        assertThat(errors).hasSize(60);
+        assertThat(errors.get(0).getMessage()).isEqualTo("entry-4000");
+        assertThat(errors.get(59).getMessage()).isEqualTo("entry-9900");
+        for (LogEntry error : errors) {
+            assertThat(error.getLevel()).isEqualTo("ERROR");
+            assertThat(error.getContinuation()).hasSize(50);
+            assertThat(error.getContinuation().get(49)).isEqualTo("\tat org.jahia.Frame49.call(Frame.java:1)");
+        }
+        assertThat(LogEntryReader.tail(file, 2, null).get(1).getMessage()).isEqualTo("entry-9999");
+        assertThat(LogEntryReader.tail(file, 10, "NOTALEVEL")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("keeps at most MAX_CONTINUATION_LINES per entry and counts the others")
+    void tail_capsContinuationLines() throws IOException {
+        StringBuilder content = new StringBuilder("2026-10-18 10:00:00,000: ERROR [Worker] - huge\n");
+        for (int i = 0; i < LogEntry.MAX_CONTINUATION_LINES + 5; i++) {
+            content.append("line-").append(i).append('\n');
+        }
+        Path file = write(content.toString());
+
+        LogEntry entry = LogEntryReader.tail(file, 1, null).get(0);
+
+        assertThat(entry.getContinuation()).hasSize(LogEntry.MAX_CONTINUATION_LINES);
+        assertThat(entry.getOmittedLines()).isEqualTo(5);
+    }
+}
@@ -0,0 +1,86 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@DisplayName("LogFiles caller-supplied name containment")
+class LogFilesTest {
+
+    private static final String CATALINA_BASE = "catalina.base";
+
+    @TempDir
+    Path catalinaBase;
+
+    private String previousCatalinaBase;
+    private Path logsDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        previousCatalinaBase = System.getProperty(CATALINA_BASE);
+        System.setProperty(CATALINA_BASE, catalinaBase.toString());
+        logsDir = catalinaBase.resolve("logs");
+        Files.createDirectories(logsDir.resolve("archive"));
+        Files.write(logsDir.resolve("jahia.log"), "hello\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(logsDir.resolve("archive").resolve("catalina.out"), "hello\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(catalinaBase.resolve("secret.txt"), "top secret\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (previousCatalinaBase == null) {
+            System.clearProperty(CATALINA_BASE);
+        } else {
+            System.setProperty(CATALINA_BASE, previousCatalinaBase);
+        }
+    }
+
+    @Test
+    @DisplayName("resolves files and nested files inside the log directory")
+    void resolve_insideRoot() {
+        assertThat(LogFiles.resolve("jahia.log")).isNotNull();
+        assertThat(LogFiles.resolve("archive/catalina.out")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("rejects traversal, absolute paths, folders, missing files and blank names")
+    void resolve_rejectsEscapes() {
+        assertThat(LogFiles.resolve("../secret.txt")).isNull();
+        assertThat(LogFiles.resolve("archive/../../secret.txt")).isNull();
+        assertThat(LogFiles.resolve(catalinaBase.resolve("secret.txt").toString())).isNull();
+        assertThat(LogFiles.resolve("archive")).isNull();
+        assertThat(LogFiles.resolve("missing.log")).isNull();
+        assertThat(LogFiles.resolve("")).isNull();
+        assertThat(LogFiles.resolve(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("rejects a symlink inside the log directory that points outside it")
+    void resolve_rejectsSymlinkEscape() throws IOException {
+        try {
+            Files.createSymbolicLink(logsDir.resolve("escape.log"), catalinaBase.resolve("secret.txt"));
+        } catch (IOException | UnsupportedOperationException e) {
+            assumeTrue(false, "symlinks not supported on this platform");
+        }
+
+        assertThat(LogFiles.resolve("escape.log")).isNull();
+    }
+
+    @Test
+    @DisplayName("returns null when catalina.base is unset")
+    void resolve_catalinaBaseUnset() {
+        System.clearProperty(CATALINA_BASE);
+
+        assertThat(LogFiles.resolve("jahia.log")).isNull();
+    }
+}
@@ -0,0 +1,131 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LogHistograms incremental level counts")
+class LogHistogramsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static long millis(String localDateTime) {
+        return LocalDateTime.parse(localDateTime).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static void append(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Test
+    @DisplayName("counts entries per level and bucket, ignoring continuation lines")
+    void read_countsPerBucket() throws IOException {
+        Path file = tempDir.resolve("jahia.log");
+        append(file, "2026-10-18 10:00:01,000: ERROR [A] - one\n"
+                + "java.lang.IllegalStateException: ERROR\n"
+                + "2026-10-18 10:00:59,000: INFO  [A] - two\n"
+                + "2026-10-18 10:01:30,000: ERROR [A] - three\n"
+                + "2026-10-18 10:07:00,000: WARN  [A] - four\n"
+                + "18-Oct-2026 10:08:00.000 SEVERE [main] org.apache.Foo.bar five\n");
+
+        LogHistograms.Result perMinute = LogHistograms.read(file, Long.MIN_VALUE, Long.MAX_VALUE, 1);
+
+        assertThat(perMinute.getBuckets()).hasSize(4);
+        assertThat(perMinute.getBuckets().get(0).getStart()).isEqualTo(millis("2026-10-18T10:00"));
+        assertThat(perMinute.getBuckets().get(0).getCounts()).containsEntry("ERROR", 1L).containsEntry("INFO", 1L);
+        assertThat(perMinute.getBuckets().get(0).getTotal()).isEqualTo(2L);
+        assertThat(perMinute.getTotals()).containsEntry("ERROR", 2L).containsEntry("SEVERE", 1L).containsEntry("WARN", 1L);
+
+        LogHistograms.Result range = LogHistograms.read(file, millis("2026-10-18T10:01"), millis("2026-10-18T10:07:30"), 5);
+        assertThat(range.getBuckets()).hasSize(2);
+        assertThat(range.getBuckets().get(0).getStart()).isEqualTo(millis("2026-10-18T10:00"));
+        assertThat(range.getBuckets().get(0).getCounts()).containsEntry("ERROR", 1L).doesNotContainKey("INFO");
+        assertThat(range.getBuckets().get(1).getStart()).isEqualTo(millis("2026-10-18T10:05"));
+        assertThat(range.getTotals()).doesNotContainKey("SEVERE");
+    }
+
+    @Test
+    @DisplayName("reads only the appended bytes, counting a line once it is complete")
+    void read_consumesAppendedBytesOnly() throws IOException {
+        Path file = tempDir.resolve("catalina.out");
+        String first = "2026-10-18 10:00:00,000: ERROR [A] - one\n";
+        append(file, first + "2026-10-18 10:00:10,000: ERR");
+        LevelHistogram histogram = new LevelHistogram(LogCursor.fileId(Files.readAttributes(file, BasicFileAttributes.class)));
+
+        LogHistograms.update(file, histogram);
+        assertThat(histogram.getOffset()).isEqualTo((long) first.length());
+
+        append(file, "OR [A] - two\n");
+        LogHistograms.update(file, histogram);
+        assertThat(histogram.getOffset()).isEqualTo(Files.size(file));
+        assertThat(histogram.minutes(Long.MIN_VALUE, Long.MAX_VALUE).firstEntry().getValue()[LogEntryParser.levelIndex("ERROR")]).isEqualTo(2L);
+
+        assertThat(LogHistograms.read(file, Long.MIN_VALUE, Long.MAX_VALUE, 1).getTotals()).containsEntry("ERROR", 2L);
+        append(file, "2026-10-18 10:00:20,000: ERROR [A] - three\n");
+        assertThat(LogHistograms.read(file, Long.MIN_VALUE, Long.MAX_VALUE, 1).getTotals()).containsEntry("ERROR", 3L);
+    }
+
+    @Test
+    @DisplayName("starts over when the file is rotated")
+    void read_resetsOnRotation() throws IOException {
+        Path file = tempDir.resolve("jahia.log");
+        append(file, "2026-10-18 10:00:00,000: ERROR [A] - before\n2026-10-18 10:00:01,000: ERROR [A] - before\n");
+        assertThat(LogHistograms.read(file, Long.MIN_VALUE, Long.MAX_VALUE, 1).getTotals()).containsEntry("ERROR", 2L);
+
+        Files.move(file, tempDir.resolve("jahia.log.1"), StandardCopyOption.ATOMIC_MOVE);
+        append(file, "2026-10-18 10:05:00,000: ERROR [A] - after\n");
+
+        assertThat(LogHistograms.read(file, Long.MIN_VALUE, Long.MAX_VALUE, 1).getTotals()).containsEntry("ERROR", 1L);
+    }
+
+    @Test
+    @DisplayName("counts the entries of the dated rotations within the retention, not those of sibling logs")
+    void read_includesDatedRotations() throws IOException {
+        Path file = tempDir.resolve("jahia.log");
+        append(file, "2026-10-18 10:00:00,000: ERROR [A] - today\n");
+        append(tempDir.resolve("jahia.log.2026-10-17"), "2026-10-17 09:00:00,000: ERROR [A] - yesterday\n"
+                + "2026-10-17 09:30:00,000: WARN  [A] - yesterday\n");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tempDir.resolve("jahia.log.2026-10-16.gz")))) {
+            out.write("2026-10-16 09:00:00,000: ERROR [A] - two days ago\n".getBytes(StandardCharsets.UTF_8));
+        }
+        append(tempDir.resolve("jahia.log.2026-10-01"), "2026-10-01 09:00:00,000: ERROR [A] - too old\n");
+        append(tempDir.resolve("jahia-access.log.2026-10-17"), "2026-10-17 09:00:00,000: ERROR [A] - other log\n");
+
+        LogHistograms.Result all = LogHistograms.read(file, Long.MIN_VALUE, Long.MAX_VALUE, 60);
+
+        assertThat(all.getTotals()).containsEntry("ERROR", 3L).containsEntry("WARN", 1L);
+        assertThat(all.getBuckets().get(0).getStart()).isEqualTo(millis("2026-10-16T09:00"));
+        assertThat(LogHistograms.read(file, millis("2026-10-17T00:00"), millis("2026-10-17T23:59"), 60).getTotals())
+                .containsEntry("ERROR", 1L).containsEntry("WARN", 1L);
+        // Counted once: later calls add nothing
+        assertThat(LogHistograms.read(file, Long.MIN_VALUE, Long.MAX_VALUE, 60).getTotals()).containsEntry("ERROR", 3L);
+    }
+
+    @Test
+    @DisplayName("drops minutes older than the retention")
+    void update_prunesOldMinutes() {
+        LevelHistogram histogram = new LevelHistogram("id");
+        histogram.count(millis("2026-10-01T10:00"), 0);
+        histogram.count(millis("2026-10-17T10:00"), 0);
+        histogram.count(millis("2026-10-18T10:00"), 0);
+
+        histogram.prune();
+
+        assertThat(histogram.getMinuteCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,103 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LogLineReader paging through the sparse line index")
+class LogLineReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static String lines(int from, int to) {
+        return IntStream.range(from, to)
+                .mapToObj(i -> "line-" + i)
+                .collect(Collectors.joining("\n", "", "\n"));
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = tempDir.resolve("catalina-" + System.nanoTime() + ".out");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    @DisplayName("returns the requested page wherever it falls relative to the checkpoints")
+    void readLines_returnsRequestedPage() throws IOException {
+        Path file = write(lines(0, 10_000));
+
+        assertThat(LogLineReader.readLines(file, 0, 3).getLines()).containsExactly("line-0", "line-1", "line-2");
+        assertThat(LogLineReader.readLines(file, 255, 3).getLines()).containsExactly("line-255", "line-256", "line-257");
+        assertThat(LogLineReader.readLines(file, 7_777, 2).getLines()).containsExactly("line-7777", "line-7778");
+        assertThat(LogLineReader.readLines(file, 9_998, 10).getLines()).containsExactly("line-9998", "line-9999");
+        assertThat(LogLineReader.readLines(file, 9_998, 10).getTotalLines()).isEqualTo(10_000L);
+    }
+
+    @Test
+    @DisplayName("returns an empty page past the end or for a negative line")
+    void readLines_outOfRange_isEmpty() throws IOException {
+        Path file = write(lines(0, 10));
+
+        assertThat(LogLineReader.readLines(file, 10, 5).getLines()).isEmpty();
+        assertThat(LogLineReader.readLines(file, -1, 5).getLines()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("picks up appended lines, including a trailing line without newline")
+    void readLines_growingFile_extendsIndex() throws IOException {
+        Path file = write(lines(0, 1_000));
+        assertThat(LogLineReader.readLines(file, 0, 1).getTotalLines()).isEqualTo(1_000L);
+
+        Files.write(file, (lines(1_000, 2_000) + "partial").getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        LogLineReader.Page page = LogLineReader.readLines(file, 1_998, 5);
+
+        assertThat(page.getTotalLines()).isEqualTo(2_001L);
+        assertThat(page.getLines()).containsExactly("line-1998", "line-1999", "partial");
+    }
+
+    @Test
+    @DisplayName("rebuilds the index when the file is truncated and rewritten")
+    void readLines_truncatedFile_rebuildsIndex() throws IOException {
+        Path file = write(lines(0, 1_000));
+        LogLineReader.readLines(file, 0, 1);
+
+        Files.write(file, "fresh-0\nfresh-1\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.TRUNCATE_EXISTING);
+        LogLineReader.Page page = LogLineReader.readLines(file, 0, 10);
+
+        assertThat(page.getTotalLines()).isEqualTo(2L);
+        assertThat(page.getLines()).containsExactly("fresh-0", "fresh-1");
+    }
+
+    @Test
+    @DisplayName("the index stays bounded by doubling its stride, and checkpoints stay exact")
+    void lineIndex_compactsWhenFull() throws IOException {
+        Path file = write(lines(0, 5_000));
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        LineIndex index = new LineIndex(LogCursor.fileId(attributes), 16, 32);
+
+        try (SeekableByteChannel channel = Files.newByteChannel(file)) {
+            index.update(channel, attributes);
+        }
+
+        assertThat(index.getCheckpointCount()).isLessThanOrEqualTo(32);
+        assertThat(index.getStride()).isGreaterThan(16);
+        assertThat(index.getLineCount()).isEqualTo(5_000L);
+        long line = index.checkpointLine(4_321);
+        long offset = index.checkpointOffset(4_321);
+        assertThat(line).isLessThanOrEqualTo(4_321L);
+        assertThat(offset).isEqualTo((long) lines(0, (int) line).length());
+    }
+}
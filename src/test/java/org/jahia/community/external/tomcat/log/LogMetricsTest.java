@@ -0,0 +1,91 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LogMetrics counters and JMX exposure")
+class LogMetricsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        LogMetrics.reset();
+    }
+
+    @Test
+    @DisplayName("counts calls, errors and bytes, with percentiles bounded by the slowest call")
+    void time_countsCallsErrorsAndBytes() {
+        for (int i = 0; i < 99; i++) {
+            try (LogMetrics.Timer timer = LogMetrics.time("test.read")) {
+                timer.addBytes(10);
+                timer.succeeded(null);
+            }
+        }
+        try (LogMetrics.Timer timer = LogMetrics.time("test.read")) {
+            timer.addBytes(-1);
+        }
+
+        OperationStatistics statistics = LogMetrics.snapshot().get("test.read");
+
+        assertThat(statistics.getCalls()).isEqualTo(100L);
+        assertThat(statistics.getErrors()).isEqualTo(1L);
+        assertThat(statistics.getBytesRead()).isEqualTo(990L);
+        assertThat(statistics.getP50Micros()).isLessThanOrEqualTo(statistics.getP99Micros());
+        assertThat(statistics.getP99Micros()).isLessThanOrEqualTo(statistics.getMaxMicros());
+        assertThat(statistics.getMeanMicros()).isLessThanOrEqualTo(statistics.getMaxMicros());
+    }
+
+    @Test
+    @DisplayName("counts line index hits once the index of a file is cached")
+    void cacheHits_countedByReaders() throws IOException {
+        Path file = Files.write(tempDir.resolve("metrics-" + System.nanoTime() + ".log"), "one\ntwo\n".getBytes(StandardCharsets.UTF_8));
+
+        LogLineReader.readLines(file, 0, 1);
+        LogLineReader.readLines(file, 1, 1);
+
+        OperationStatistics statistics = LogMetrics.snapshot().get("cache.lineIndex");
+        assertThat(statistics.getCacheMisses()).isEqualTo(1L);
+        assertThat(statistics.getCacheHits()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("publishes the operations on the platform MBean server while active")
+    void activate_registersMXBean() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(TomcatLogMetrics.OBJECT_NAME);
+        TomcatLogMetrics metrics = new TomcatLogMetrics();
+        metrics.activate();
+        try {
+            try (LogMetrics.Timer timer = LogMetrics.time("test.jmx")) {
+                timer.succeeded(null);
+            }
+
+            TabularData operations = (TabularData) server.getAttribute(name, "Operations");
+            CompositeData operation = (CompositeData) operations.get(new Object[]{"test.jmx"}).get("value");
+            assertThat(operation.get("calls")).isEqualTo(1L);
+            assertThat(operation.get("errors")).isEqualTo(0L);
+
+            server.invoke(name, "reset", new Object[0], new String[0]);
+            assertThat(LogMetrics.snapshot()).isEmpty();
+        } finally {
+            metrics.deactivate();
+        }
+        assertThat(server.isRegistered(name)).isFalse();
+    }
+}
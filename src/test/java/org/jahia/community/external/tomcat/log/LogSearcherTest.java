@@ -0,0 +1,225 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@DisplayName("LogSearcher across current and rotated files")
+class LogSearcherTest {
+
+    private static final long TIMEOUT_MS = 10_000;
+
+    @TempDir
+    Path tempDir;
+
+    private Path root;
+    private ThreadPoolExecutor executor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(2);
+        root = tempDir.resolve("logs");
+        Files.createDirectories(root.resolve("archive"));
+        write("jahia.log",
+                "2026-10-18 10:00:00,000: INFO  [Main] - started\n"
+                        + "2026-10-18 10:00:01,000: ERROR [Worker] - Connection refused\n"
+                        + "\tat org.example.Db.connect(Db.java:12)\n"
+                        + "2026-10-18 10:00:02,000: INFO  [Worker] - retrying connection\n");
+        write("archive/jahia.log.2026-10-17",
+                "2026-10-17 09:00:00,000: ERROR [Worker] - Disk full\n"
+                        + "2026-10-17 09:00:01,000: WARN  [Worker] - ErrorPage not found\n");
+        write("catalina.out", "18-Oct-2026 10:00:00.000 SEVERE [main] org.apache.Catalina Connection refused\n");
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private void write(String name, String content) throws IOException {
+        Files.write(root.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("finds literal matches in every file with file, line and offset")
+    void search_literal_acrossFiles() throws IOException {
+        LogSearcher.Result result = LogSearcher.search(root, null, LogLineMatcher.create("Connection refused", false, false, null), 0, 100, TIMEOUT_MS, executor);
+
+        assertThat(result.getFilesSearched()).isEqualTo(3);
+        assertThat(result.isTruncated()).isFalse();
+        assertThat(result.getMatches()).hasSize(2);
+        LogSearcher.Match match = result.getMatches().get(1);
+        assertThat(match.getFile()).isEqualTo("jahia.log");
+        assertThat(match.getLine()).isEqualTo(1L);
+        assertThat(match.getOffset()).isEqualTo((long) "2026-10-18 10:00:00,000: INFO  [Main] - started\n".length());
+        assertThat(match.getText()).endsWith("Connection refused");
+    }
+
+    @Test
+    @DisplayName("supports regular expressions and case-insensitive matching")
+    void search_regexAndIgnoreCase() throws IOException {
+        assertThat(LogSearcher.search(root, null, LogLineMatcher.create("Db\\.java:\\d+", true, false, null), 0, 100, TIMEOUT_MS, executor)
+                .getMatches()).hasSize(1);
+        assertThat(LogSearcher.search(root, null, LogLineMatcher.create("CONNECTION", false, true, null), 0, 100, TIMEOUT_MS, executor)
+                .getMatches()).hasSize(3);
+        assertThat(LogSearcher.search(root, null, LogLineMatcher.create("CONNECTION", false, false, null), 0, 100, TIMEOUT_MS, executor)
+                .getMatches()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("filters on the level as a whole word near the start of the line")
+    void search_levelFilter() throws IOException {
+        LogSearcher.Result result = LogSearcher.search(root, null, LogLineMatcher.create(null, false, false, "error"), 0, 100, TIMEOUT_MS, executor);
+
+        // "ErrorPage" on the WARN line is not the ERROR level
+        assertThat(result.getMatches()).hasSize(2);
+        assertThat(result.getMatches()).allMatch(m -> ((LogSearcher.Match) m).getText().contains(": ERROR "));
+    }
+
+    @Test
+    @DisplayName("restricts the search to files matching the glob")
+    void search_glob() throws IOException {
+        assertThat(LogSearcher.search(root, "jahia.log*", LogLineMatcher.create("ERROR", false, false, null), 0, 100, TIMEOUT_MS, executor)
+                .getFilesSearched()).isEqualTo(2);
+        assertThat(LogSearcher.search(root, "archive/**", LogLineMatcher.create("ERROR", false, false, null), 0, 100, TIMEOUT_MS, executor)
+                .getMatches()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("returns the requested context lines around each match")
+    void search_context() throws IOException {
+        LogSearcher.Result result = LogSearcher.search(root, "jahia.log", LogLineMatcher.create("Connection refused", false, false, null), 1, 100, TIMEOUT_MS, executor);
+
+        LogSearcher.Match match = result.getMatches().get(0);
+        assertThat(match.getBefore()).containsExactly("2026-10-18 10:00:00,000: INFO  [Main] - started");
+        assertThat(match.getAfter()).containsExactly("\tat org.example.Db.connect(Db.java:12)");
+    }
+
+    @Test
+    @DisplayName("stops at the result cap and reports the result as truncated")
+    void search_capped() throws IOException {
+        write("big.log", IntStream.range(0, 10_000).mapToObj(i -> "hit " + i).collect(Collectors.joining("\n")));
+
+        LogSearcher.Result result = LogSearcher.search(root, "big.log", LogLineMatcher.create("hit", false, false, null), 0, 50, TIMEOUT_MS, executor);
+
+        assertThat(result.getMatches()).hasSize(50);
+        assertThat(result.isTruncated()).isTrue();
+    }
+
+    @Test
+    @DisplayName("is not truncated when it finds exactly as many matches as the cap")
+    void search_exactlyCapped_notTruncated() throws IOException {
+        write("big.log", IntStream.range(0, 50).mapToObj(i -> "hit " + i).collect(Collectors.joining("\n")));
+
+        LogSearcher.Result result = LogSearcher.search(root, "big.log", LogLineMatcher.create("hit", false, false, null), 0, 50, TIMEOUT_MS, executor);
+
+        assertThat(result.getMatches()).hasSize(50);
+        assertThat(result.isTruncated()).isFalse();
+    }
+
+    @Test
+    @DisplayName("finds lines spanning the read buffer boundary with exact line numbers")
+    void search_largeFile_acrossBuffers() throws IOException {
+        String content = IntStream.range(0, 200_000).mapToObj(i -> "line " + i + " padding padding").collect(Collectors.joining("\n", "", "\n"));
+        write("big.log", content);
+
+        LogSearcher.Result result = LogSearcher.search(root, "big.log", LogLineMatcher.create("line 199999 ", false, false, null), 0, 10, TIMEOUT_MS, executor);
+
+        assertThat(result.getMatches()).hasSize(1);
+        assertThat(result.getMatches().get(0).getLine()).isEqualTo(199_999L);
+    }
+
+    @Test
+    @DisplayName("counts a line longer than the read buffer as one line, consistently with the lines query")
+    void search_lineLongerThanBuffer_countedOnce() throws IOException {
+        StringBuilder content = new StringBuilder("first\nhit long ");
+        for (int i = 0; i < 3 * 1024 * 1024; i++) {
+            content.append('x');
+        }
+        content.append("\nhit after\n");
+        write("long.log", content.toString());
+
+        LogSearcher.Result result = LogSearcher.search(root, "long.log", LogLineMatcher.create("hit", false, false, null), 0, 10, TIMEOUT_MS, executor);
+
+        assertThat(result.getMatches()).hasSize(2);
+        assertThat(result.getMatches().get(0).getLine()).isEqualTo(1L);
+        assertThat(result.getMatches().get(1).getLine()).isEqualTo(2L);
+        assertThat(result.getMatches().get(1).getText()).isEqualTo("hit after");
+        assertThat(LogLineReader.readLines(root.resolve("long.log"), 2, 1).getLines()).containsExactly("hit after");
+    }
+
+    @Test
+    @DisplayName("keeps the matches of files still being scanned when the time budget runs out")
+    void search_timeBudgetExceeded_keepsPartialMatches() throws IOException {
+        StringBuilder slow = new StringBuilder("hit\n");
+        for (int i = 0; i < 2000; i++) {
+            // The backreference defeats the regex engine's memoization: each line takes milliseconds
+            slow.append("aaaaaaaaaaaaaaaa!\n");
+        }
+        write("slow.log", slow.toString());
+        long start = System.nanoTime();
+
+        LogSearcher.Result result = LogSearcher.search(root, "slow.log", LogLineMatcher.create("hit|(a+)+\\1b", true, false, null), 0, 100, 200, executor);
+
+        assertThat(result.isTruncated()).isTrue();
+        assertThat(result.getMatches()).hasSize(1);
+        assertThat(result.getMatches().get(0).getText()).isEqualTo("hit");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(5000L);
+    }
+
+    @Test
+    @DisplayName("stops a regular expression stuck on a single line once the time budget runs out")
+    void search_runawayRegex_freesTheWorker() throws IOException, InterruptedException {
+        // Backtracks for far longer than the test runs
+        write("runaway.log", "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa!\n");
+
+        LogSearcher.Result result = LogSearcher.search(root, "runaway.log", LogLineMatcher.create("(a+)+\\1b", true, false, null), 0, 100, 200, executor);
+
+        assertThat(result.isTruncated()).isTrue();
+        assertThat(result.getMatches()).isEmpty();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.getActiveCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(executor.getActiveCount()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("skips symlinks pointing outside the log directory")
+    void search_skipsSymlinkEscape() throws IOException {
+        Path secret = tempDir.resolve("secret.txt");
+        Files.write(secret, "Connection refused secret\n".getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.createSymbolicLink(root.resolve("escape.log"), secret);
+        } catch (IOException | UnsupportedOperationException e) {
+            assumeTrue(false, "symlinks not supported on this platform");
+        }
+
+        LogSearcher.Result result = LogSearcher.search(root.toRealPath(), null, LogLineMatcher.create("secret", false, false, null), 0, 100, TIMEOUT_MS, executor);
+
+        assertThat(result.getMatches()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("rejects an invalid regular expression")
+    void create_invalidRegex_throws() {
+        assertThatThrownBy(() -> LogLineMatcher.create("(unclosed", true, false, null))
+                .isInstanceOf(java.util.regex.PatternSyntaxException.class);
+    }
+}
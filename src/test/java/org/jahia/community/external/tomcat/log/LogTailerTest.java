@@ -0,0 +1,156 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LogTailer incremental reads")
+class LogTailerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path write(String name, String content) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static void append(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+
+    private static String lines(int from, int to) {
+        return IntStream.rangeClosed(from, to)
+                .mapToObj(i -> "line-" + i)
+                .collect(Collectors.joining("\n", "", "\n"));
+    }
+
+    @Test
+    @DisplayName("tail returns the last complete lines and a reset chunk")
+    void tail_returnsLastCompleteLines() throws IOException {
+        Path file = write("jahia.log", lines(1, 100) + "partial");
+
+        LogTailer.Chunk chunk = LogTailer.tail(file, 3);
+
+        assertThat(chunk.getLines()).containsExactly("line-98", "line-99", "line-100");
+        assertThat(chunk.isReset()).isTrue();
+        // The partial line stays behind the cursor
+        assertThat(chunk.getCursor().getOffset()).isEqualTo(lines(1, 100).length());
+    }
+
+    @Test
+    @DisplayName("readAfter returns only the lines appended since the cursor")
+    void readAfter_returnsOnlyAppendedLines() throws IOException {
+        Path file = write("jahia.log", lines(1, 10));
+        LogCursor cursor = LogTailer.tail(file, 200).getCursor();
+
+        assertThat(LogTailer.readAfter(file, cursor, 200).getLines()).isEmpty();
+
+        append(file, "line-11\nline-1");
+        LogTailer.Chunk first = LogTailer.readAfter(file, cursor, 200);
+        assertThat(first.getLines()).containsExactly("line-11");
+        assertThat(first.isReset()).isFalse();
+
+        append(file, "2\r\n");
+        LogTailer.Chunk second = LogTailer.readAfter(file, first.getCursor(), 200);
+        assertThat(second.getLines()).containsExactly("line-12");
+        assertThat(second.getCursor().getOffset()).isEqualTo(Files.size(file));
+    }
+
+    @Test
+    @DisplayName("readAfter flags a reset when the file is truncated")
+    void readAfter_truncatedFile_resets() throws IOException {
+        Path file = write("jahia.log", lines(1, 10));
+        LogCursor cursor = LogTailer.tail(file, 200).getCursor();
+
+        Files.write(file, "fresh\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.TRUNCATE_EXISTING);
+        LogTailer.Chunk chunk = LogTailer.readAfter(file, cursor, 200);
+
+        assertThat(chunk.isReset()).isTrue();
+        assertThat(chunk.getLines()).containsExactly("fresh");
+    }
+
+    @Test
+    @DisplayName("readAfter flags a reset when the file was rotated, even if the new file is larger")
+    void readAfter_rotatedFile_resets() throws IOException {
+        Path file = write("jahia.log", lines(1, 3));
+        LogCursor cursor = LogTailer.tail(file, 200).getCursor();
+
+        Files.move(file, tempDir.resolve("jahia.log.1"));
+        write("jahia.log", lines(100, 200));
+        LogTailer.Chunk chunk = LogTailer.readAfter(file, cursor, 200);
+
+        assertThat(chunk.isReset()).isTrue();
+        assertThat(chunk.getLines()).startsWith("line-100").endsWith("line-200");
+    }
+
+    @Test
+    @DisplayName("readAfter keeps the cursor while the file is missing during rotation")
+    void readAfter_missingFile_keepsCursor() throws IOException {
+        Path file = write("jahia.log", lines(1, 3));
+        LogCursor cursor = LogTailer.tail(file, 200).getCursor();
+        Files.delete(file);
+
+        LogTailer.Chunk chunk = LogTailer.readAfter(file, cursor, 200);
+
+        assertThat(chunk.getLines()).isEmpty();
+        assertThat(chunk.getCursor()).isEqualTo(cursor);
+        assertThat(chunk.isReset()).isFalse();
+    }
+
+    @Test
+    @DisplayName("readAfter returns the first maxLines appended lines and continues after them on the next call")
+    void readAfter_moreThanMaxLines_continuesOnNextCall() throws IOException {
+        Path file = write("jahia.log", lines(1, 10));
+        LogCursor cursor = LogTailer.tail(file, 200).getCursor();
+        append(file, lines(11, 15));
+
+        LogTailer.Chunk first = LogTailer.readAfter(file, cursor, 3);
+
+        assertThat(first.getLines()).containsExactly("line-11", "line-12", "line-13");
+        assertThat(first.isReset()).isFalse();
+        LogTailer.Chunk second = LogTailer.readAfter(file, first.getCursor(), 3);
+        assertThat(second.getLines()).containsExactly("line-14", "line-15");
+        assertThat(second.isReset()).isFalse();
+        assertThat(second.getCursor().getOffset()).isEqualTo(Files.size(file));
+    }
+
+    @Test
+    @DisplayName("a cursor lagging more than the window skips ahead and flags a reset")
+    void readAfter_farBehind_readsOnlyTheWindow() throws IOException {
+        Path file = write("jahia.log", "first\n");
+        LogCursor cursor = LogTailer.tail(file, 200).getCursor();
+        append(file, lines(1, 100_000));
+
+        LogTailer.Chunk chunk = LogTailer.readAfter(file, cursor, 5000);
+
+        assertThat(chunk.isReset()).isTrue();
+        assertThat(chunk.getLines()).hasSizeLessThanOrEqualTo(5000).endsWith("line-100000");
+        assertThat(chunk.getCursor().getOffset()).isEqualTo(Files.size(file));
+    }
+
+    @Test
+    @DisplayName("cursors round-trip through their encoded form and malformed values decode to null")
+    void cursor_encodeDecode() {
+        LogCursor cursor = new LogCursor("abc123", 4096);
+
+        assertThat(LogCursor.decode(cursor.encode())).isEqualTo(cursor);
+        assertThat(LogCursor.decode(null)).isNull();
+        assertThat(LogCursor.decode("")).isNull();
+        assertThat(LogCursor.decode("abc")).isNull();
+        assertThat(LogCursor.decode("zz.10")).isNull();
+        assertThat(LogCursor.decode("abc.-1")).isNull();
+        assertThat(LogCursor.decode("../../etc/passwd")).isNull();
+    }
+}
@@ -0,0 +1,254 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LogTimeRangeReader binary search over timestamped lines")
+class LogTimeRangeReaderTest {
+
+    private static final DateTimeFormatter JAHIA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss,SSS");
+    private static final LocalDateTime START = LocalDateTime.of(2026, 10, 17, 0, 0);
+
+    @TempDir
+    Path tempDir;
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static long parse(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+        return LogTimestamps.parse(bytes, 0, bytes.length);
+    }
+
+    /**
+     * One entry per second from {@link #START}, every tenth followed by a stack trace line.
+     */
+    private Path writeDay(String name, int entries) throws IOException {
+        StringBuilder content = new StringBuilder(entries * 80);
+        for (int i = 0; i < entries; i++) {
+            content.append(START.plusSeconds(i).format(JAHIA)).append(": INFO  [Worker] - entry ").append(i).append('\n');
+            if (i % 10 == 0) {
+                content.append("\tat org.example.Worker.run(Worker.java:").append(i).append(")\n");
+            }
+        }
+        Path file = tempDir.resolve(name);
+        Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    @DisplayName("parses Jahia, ISO and Catalina timestamps and rejects continuation lines")
+    void parse_supportedFormats() {
+        long expected = millis(LocalDateTime.of(2026, 10, 18, 14, 2, 3, 456_000_000));
+
+        assertThat(parse("2026-10-18 14:02:03,456: INFO  [Main] - started")).isEqualTo(expected);
+        assertThat(parse("2026-10-18T14:02:03.456 started")).isEqualTo(expected);
+        assertThat(parse("[2026-10-18 14:02:03,456] started")).isEqualTo(expected);
+        assertThat(parse("18-Oct-2026 14:02:03.456 INFO [main] org.apache.catalina.startup.Catalina.start")).isEqualTo(expected);
+        assertThat(parse("2026-10-18 14:02:03 no millis")).isEqualTo(expected - 456);
+        assertThat(parse("\tat org.example.Worker.run(Worker.java:12)")).isEqualTo(LogTimestamps.NONE);
+        assertThat(parse("2026-13-18 14:02:03,456 invalid month")).isEqualTo(LogTimestamps.NONE);
+        assertThat(parse("")).isEqualTo(LogTimestamps.NONE);
+    }
+
+    @Test
+    @DisplayName("returns the entries of the range with their continuation lines")
+    void readBetween_returnsRange() throws IOException {
+        Path file = writeDay("jahia.log", 1_000);
+
+        LogTimeRangeReader.Result result = LogTimeRangeReader.readBetween(file,
+                millis(START.plusSeconds(500)), millis(START.plusSeconds(502)), 100);
+
+        assertThat(result.getFiles()).containsExactly("jahia.log");
+        assertThat(result.isTruncated()).isFalse();
+        assertThat(result.getLines()).hasSize(4);
+        assertThat(result.getLines().get(0)).endsWith("entry 500");
+        assertThat(result.getLines().get(1)).isEqualTo("\tat org.example.Worker.run(Worker.java:500)");
+        assertThat(result.getLines().get(3)).endsWith("entry 502");
+    }
+
+    @Test
+    @DisplayName("locates the range start reading a few KB of a large file, fewer once checkpoints are cached")
+    void findStart_readsFewBytes() throws IOException {
+        Path file = writeDay("catalina.out", 86_400);
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        TimeIndex index = new TimeIndex(LogCursor.fileId(attributes));
+        long time = millis(START.plusHours(14).plusMinutes(2));
+
+        long start;
+        long firstSearch;
+        try (CountingChannel channel = new CountingChannel(Files.newByteChannel(file))) {
+            start = LogTimeRangeReader.findStart(channel, index, attributes.size(), time);
+            firstSearch = channel.bytesRead;
+        }
+        long secondSearch;
+        try (CountingChannel channel = new CountingChannel(Files.newByteChannel(file))) {
+            assertThat(LogTimeRangeReader.findStart(channel, index, attributes.size(), time + 1_000)).isGreaterThanOrEqualTo(start);
+            secondSearch = channel.bytesRead;
+        }
+
+        assertThat(attributes.size()).isGreaterThan(5_000_000L);
+        assertThat(firstSearch).isLessThan(128 * 1024L);
+        assertThat(secondSearch).isLessThan(firstSearch);
+        assertThat(index.getCheckpointCount()).isGreaterThan(0);
+        String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        int target = text.indexOf(START.plusHours(14).plusMinutes(2).format(JAHIA));
+        assertThat(start).isLessThanOrEqualTo(target);
+        assertThat(target - start).isLessThanOrEqualTo(16 * 1024L);
+    }
+
+    @Test
+    @DisplayName("reads dated rotations within the range, compressed or not, then the current file")
+    void readBetween_acrossRotatedFiles() throws IOException {
+        writeDay("jahia.log.2026-10-17", 86_400);
+        Files.write(tempDir.resolve("jahia.log.2026-10-16"), "2026-10-16 23:59:59,000: old\n".getBytes(StandardCharsets.UTF_8));
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tempDir.resolve("jahia.log.2026-10-18.gz")))) {
+            out.write("2026-10-18 00:00:00,100: compressed\n".getBytes(StandardCharsets.UTF_8));
+        }
+        Files.write(tempDir.resolve("jahia.log.2026-10-17.zip"), new byte[]{80, 75, 3, 4});
+        Files.write(tempDir.resolve("jahia_other.log.2026-10-17"), "2026-10-17 23:59:59,500: other\n".getBytes(StandardCharsets.UTF_8));
+        Path current = tempDir.resolve("jahia.log");
+        Files.write(current, "2026-10-18 00:00:00,500: after midnight\n2026-10-18 00:10:00,000: later\n".getBytes(StandardCharsets.UTF_8));
+
+        LogTimeRangeReader.Result result = LogTimeRangeReader.readBetween(current,
+                millis(START.plusDays(1).minusSeconds(1)), millis(START.plusDays(1).plusSeconds(1)), 100);
+
+        assertThat(result.getFiles()).containsExactly("jahia.log.2026-10-17", "jahia.log.2026-10-18.gz", "jahia.log");
+        assertThat(result.getLines()).hasSize(3);
+        assertThat(result.getLines().get(0)).endsWith("entry 86399");
+        assertThat(result.getLines().get(1)).endsWith("compressed");
+        assertThat(result.getLines().get(2)).endsWith("after midnight");
+    }
+
+    @Test
+    @DisplayName("reads the other days of a dated Tomcat log, but not the logs sharing its prefix")
+    void readBetween_datedFile_readsItsOtherDays() throws IOException {
+        Files.write(tempDir.resolve("catalina.2026-10-17.log"), "2026-10-17 23:59:59,000: yesterday\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(tempDir.resolve("catalina.out"), "2026-10-17 23:59:59,500: console\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(tempDir.resolve("localhost.2026-10-17.log"), "2026-10-17 23:59:59,500: localhost\n".getBytes(StandardCharsets.UTF_8));
+        Path current = tempDir.resolve("catalina.2026-10-18.log");
+        Files.write(current, "2026-10-18 00:00:00,500: today\n".getBytes(StandardCharsets.UTF_8));
+
+        LogTimeRangeReader.Result result = LogTimeRangeReader.readBetween(current,
+                millis(START.plusDays(1).minusSeconds(2)), millis(START.plusDays(1).plusSeconds(1)), 100);
+
+        assertThat(result.getFiles()).containsExactly("catalina.2026-10-17.log", "catalina.2026-10-18.log");
+        assertThat(result.getLines()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("does not take the logs sharing a prefix with the file for its rotations")
+    void selectFiles_leavesSiblingLogsOut() throws IOException {
+        for (String name : new String[]{"catalina.2026-10-17.log", "catalina.2026-10-17.log.gz", "jahia-access.2026-10-17.log",
+                "jahia-access.log.2026-10-17", "jahia.2026-10-17.gz", "jahia.2026-10-17.log.gz", "jahia.logger.2026-10-17"}) {
+            Files.write(tempDir.resolve(name), "2026-10-17 12:00:00,000: sibling\n".getBytes(StandardCharsets.UTF_8));
+        }
+        Path catalina = Files.write(tempDir.resolve("catalina.out"), "2026-10-18 00:00:00,000: console\n".getBytes(StandardCharsets.UTF_8));
+        Path jahia = Files.write(tempDir.resolve("jahia.log"), "2026-10-18 00:00:00,000: jahia\n".getBytes(StandardCharsets.UTF_8));
+        long from = millis(START);
+        long to = millis(START.plusDays(2));
+
+        assertThat(LogTimeRangeReader.selectFiles(catalina, from, to)).containsExactly(catalina);
+        assertThat(LogTimeRangeReader.selectFiles(jahia, from, to)).containsExactly(jahia);
+        assertThat(LogTimeRangeReader.rotationPattern("jahia.log").matcher("jahia.log.2026-10-17.gz").matches()).isTrue();
+        assertThat(LogTimeRangeReader.rotationPattern("jahia.log").matcher("jahia.log-2026-10-17").matches()).isTrue();
+        assertThat(LogTimeRangeReader.rotationPattern("catalina.2026-10-18.log").matcher("catalina.2026-10-17.log.gz").matches()).isTrue();
+        assertThat(LogTimeRangeReader.rotationPattern("catalina.2026-10-18.log").matcher("catalina.out").matches()).isFalse();
+    }
+
+    @Test
+    @DisplayName("stops at the line cap and reports the result as truncated")
+    void readBetween_capped() throws IOException {
+        Path file = writeDay("jahia.log", 1_000);
+
+        LogTimeRangeReader.Result result = LogTimeRangeReader.readBetween(file, millis(START), millis(START.plusHours(1)), 10);
+
+        assertThat(result.getLines()).hasSize(10);
+        assertThat(result.isTruncated()).isTrue();
+    }
+
+    @Test
+    @DisplayName("drops the cached checkpoints when the file is truncated and rewritten")
+    void readBetween_truncatedFile_rebuildsCheckpoints() throws IOException {
+        Path file = writeDay("jahia.log", 100_000);
+        LogTimeRangeReader.readBetween(file, millis(START.plusHours(20)), millis(START.plusHours(21)), 1);
+
+        Files.write(file, (START.plusHours(20).format(JAHIA) + ": fresh\n").getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.TRUNCATE_EXISTING);
+        LogTimeRangeReader.Result result = LogTimeRangeReader.readBetween(file, millis(START.plusHours(20)), millis(START.plusHours(21)), 10);
+
+        assertThat(result.getLines()).hasSize(1);
+        assertThat(result.getLines().get(0)).endsWith("fresh");
+    }
+
+    private static final class CountingChannel implements SeekableByteChannel {
+
+        private final SeekableByteChannel delegate;
+        private long bytesRead;
+
+        CountingChannel(SeekableByteChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            int read = delegate.read(dst);
+            bytesRead += Math.max(read, 0);
+            return read;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public SeekableByteChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public SeekableByteChannel truncate(long size) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
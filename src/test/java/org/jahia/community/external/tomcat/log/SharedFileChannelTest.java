@@ -0,0 +1,71 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SharedFileChannel reference-counted file channels")
+class SharedFileChannelTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static String read(SharedFileChannel shared, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        shared.channel().read(buffer, position);
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("shares one channel per file and closes it with the last release")
+    void acquire_sharesUntilLastRelease() throws IOException {
+        Path file = Files.write(tempDir.resolve("catalina.out"), "0123456789".getBytes(StandardCharsets.UTF_8));
+        int openBefore = SharedFileChannel.getOpenCount();
+
+        SharedFileChannel first = SharedFileChannel.acquire(file);
+        SharedFileChannel second = SharedFileChannel.acquire(tempDir.resolve("./catalina.out"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(SharedFileChannel.getOpenCount()).isEqualTo(openBefore + 1);
+        assertThat(read(second, 6, 4)).isEqualTo("6789");
+
+        first.release();
+        assertThat(second.channel().isOpen()).isTrue();
+        assertThat(read(second, 0, 4)).isEqualTo("0123");
+
+        second.release();
+        assertThat(second.channel().isOpen()).isFalse();
+        assertThat(SharedFileChannel.getOpenCount()).isEqualTo(openBefore);
+    }
+
+    @Test
+    @DisplayName("opens the new file once the path has been rotated, leaving the old channel to its holders")
+    void acquire_afterRotation_opensNewFile() throws IOException {
+        Path file = Files.write(tempDir.resolve("jahia.log"), "before".getBytes(StandardCharsets.UTF_8));
+        SharedFileChannel old = SharedFileChannel.acquire(file);
+
+        Files.move(file, tempDir.resolve("jahia.log.1"), StandardCopyOption.ATOMIC_MOVE);
+        Files.write(file, "after".getBytes(StandardCharsets.UTF_8));
+        SharedFileChannel current = SharedFileChannel.acquire(file);
+
+        assertThat(current).isNotSameAs(old);
+        assertThat(read(old, 0, 10)).isEqualTo("before");
+        assertThat(read(current, 0, 10)).isEqualTo("after");
+
+        old.release();
+        assertThat(current.channel().isOpen()).isTrue();
+        assertThat(SharedFileChannel.acquire(file)).isSameAs(current);
+        current.release();
+        current.release();
+        assertThat(current.channel().isOpen()).isFalse();
+    }
+}
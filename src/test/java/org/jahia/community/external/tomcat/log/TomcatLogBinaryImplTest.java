@@ -1,6 +1,7 @@
 package org.jahia.community.external.tomcat.log;
 
 import org.apache.commons.vfs2.FileContent;
+import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.VFS;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -92,4 +93,49 @@ class TomcatLogBinaryImplTest {
 
         assertThatCode(other::dispose).doesNotThrowAnyException();
     }
+
+    @Test
+    @DisplayName("a binary of a listed file reports the listed size and only opens the file once read")
+    void listedFile_opensContentLazily() throws Exception {
+        Files.write(tempDir.resolve("listed.log"), CONTENT);
+        FileObject root = VFS.getManager().resolveFile(tempDir.toUri().toString());
+        TomcatLogBinaryImpl unread = new TomcatLogBinaryImpl(root, "missing.log", 42);
+        TomcatLogBinaryImpl binary = new TomcatLogBinaryImpl(root, "listed.log", CONTENT.length);
+
+        // Nothing is resolved until the binary is read
+        assertThat(unread.getSize()).isEqualTo(42L);
+        assertThatCode(unread::dispose).doesNotThrowAnyException();
+        assertThat(binary).isEqualTo(new TomcatLogBinaryImpl(root, "listed.log", CONTENT.length));
+        try (InputStream is = binary.getStream()) {
+            assertThat(is.readAllBytes()).isEqualTo(CONTENT);
+        }
+        byte[] tail = new byte[4];
+        assertThat(binary.read(tail, 6)).isEqualTo(4);
+        assertThat(tail).isEqualTo("6789".getBytes(StandardCharsets.UTF_8));
+        binary.dispose();
+    }
+
+    @Test
+    @DisplayName("ranged reads share one channel per file, released on dispose")
+    void read_sharesChannelUntilDispose() throws Exception {
+        FileContent content = newContent();
+        TomcatLogBinaryImpl a = new TomcatLogBinaryImpl(content);
+        TomcatLogBinaryImpl b = new TomcatLogBinaryImpl(content);
+        int openBefore = SharedFileChannel.getOpenCount();
+
+        assertThat(a.read(new byte[2], 0)).isEqualTo(2);
+        assertThat(b.read(new byte[2], 8)).isEqualTo(2);
+        assertThat(SharedFileChannel.getOpenCount()).isEqualTo(openBefore + 1);
+
+        a.dispose();
+        assertThat(SharedFileChannel.getOpenCount()).isEqualTo(openBefore + 1);
+        b.dispose();
+        assertThat(SharedFileChannel.getOpenCount()).isEqualTo(openBefore);
+
+        // Still readable after dispose, without holding a channel again
+        byte[] tail = new byte[4];
+        assertThat(a.read(tail, 6)).isEqualTo(4);
+        assertThat(tail).isEqualTo("6789".getBytes(StandardCharsets.UTF_8));
+        assertThat(SharedFileChannel.getOpenCount()).isEqualTo(openBefore);
+    }
 }
@@ -48,6 +48,7 @@ class TomcatLogDataSourcePathContainmentTest {
 
     @AfterEach
     void tearDown() {
+        dataSource.stop();
         if (previousCatalinaBase == null) {
             System.clearProperty(CATALINA_BASE);
         } else {
@@ -0,0 +1,245 @@
+package org.jahia.community.external.tomcat.log;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TomcatLogStreamService shared followers")
+class TomcatLogStreamServiceTest {
+
+    private static final long TIMEOUT_MS = TimeUnit.SECONDS.toMillis(5);
+
+    @TempDir
+    Path tempDir;
+
+    private Path logFile;
+    private TomcatLogStreamService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        logFile = tempDir.resolve("jahia.log");
+        Files.write(logFile, "old-1\nold-2\n".getBytes(StandardCharsets.UTF_8));
+        service = new TomcatLogStreamService();
+        service.activate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.deactivate();
+    }
+
+    private void append(String content) throws IOException {
+        Files.write(logFile, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+
+    private static void awaitLines(RecordingSubscriber subscriber, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (subscriber.lines().size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    /** Collects every event and requests an unbounded amount unless told otherwise. */
+    private static class RecordingSubscriber implements Subscriber<LogStreamEvent> {
+        final List<LogStreamEvent> events = new CopyOnWriteArrayList<>();
+        final long initialRequest;
+        volatile Subscription subscription;
+        volatile boolean completed;
+
+        RecordingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        List<String> lines() {
+            return events.stream().flatMap(e -> e.getLines().stream()).collect(Collectors.toList());
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+            if (initialRequest > 0) {
+                s.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(LogStreamEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            completed = true;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    @Test
+    @DisplayName("every subscriber receives the lines appended after subscribing")
+    void stream_fansOutAppendedLines() throws Exception {
+        RecordingSubscriber first = new RecordingSubscriber(Long.MAX_VALUE);
+        RecordingSubscriber second = new RecordingSubscriber(Long.MAX_VALUE);
+        service.stream(logFile, null, Function.identity()).subscribe(first);
+        service.stream(logFile, null, Function.identity()).subscribe(second);
+
+        append("new-1\nnew-2\n");
+        awaitLines(first, 2);
+        awaitLines(second, 2);
+
+        assertThat(first.lines()).containsExactly("new-1", "new-2");
+        assertThat(second.lines()).containsExactly("new-1", "new-2");
+    }
+
+    @Test
+    @DisplayName("a subscriber resuming from a cursor first receives the lines it missed")
+    void stream_fromCursor_catchesUp() throws Exception {
+        LogCursor cursor = LogTailer.tail(logFile, 200).getCursor();
+        append("missed-1\n");
+
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        service.stream(logFile, cursor, Function.identity()).subscribe(subscriber);
+        append("live-1\n");
+        awaitLines(subscriber, 2);
+
+        assertThat(subscriber.lines()).containsExactly("missed-1", "live-1");
+    }
+
+    @Test
+    @DisplayName("the follower survives rotation and flags the first event of the new file")
+    void stream_rotation_continuesWithNewFile() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        service.stream(logFile, null, Function.identity()).subscribe(subscriber);
+
+        Files.move(logFile, tempDir.resolve("jahia.log.1"));
+        Files.write(logFile, "rotated-1\n".getBytes(StandardCharsets.UTF_8));
+        awaitLines(subscriber, 1);
+
+        assertThat(subscriber.lines()).containsExactly("rotated-1");
+        assertThat(subscriber.events).anyMatch(LogStreamEvent::isReset);
+    }
+
+    @Test
+    @DisplayName("a slow subscriber keeps only the most recent events and is told how many lines were dropped")
+    void subscription_dropsOldestWhenFull() {
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        LogStreamSubscription<LogStreamEvent> subscription =
+                new LogStreamSubscription<>(subscriber, Function.identity(), 2, cancelled -> { }, Runnable::run);
+        subscriber.onSubscribe(subscription);
+
+        for (int i = 1; i <= 4; i++) {
+            subscription.offer(new LogStreamEvent(List.of("line-" + i), null, false, 0));
+        }
+        subscription.request(10);
+
+        assertThat(subscriber.lines()).containsExactly("line-3", "line-4");
+        assertThat(subscriber.events.get(0).getDropped()).isEqualTo(2);
+        assertThat(subscriber.events.get(1).getDropped()).isZero();
+    }
+
+    @Test
+    @DisplayName("an error is signalled from the delivery loop, never while onNext is running")
+    void subscription_errorSerializedWithOnNext() {
+        AtomicBoolean inOnNext = new AtomicBoolean();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE) {
+            @Override
+            public void onNext(LogStreamEvent event) {
+                inOnNext.set(true);
+                super.onNext(event);
+                // Invalid demand: the subscription must fail, but not from within this call
+                subscription.request(0);
+                inOnNext.set(false);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                overlapped.compareAndSet(false, inOnNext.get());
+                errors.add(t);
+                super.onError(t);
+            }
+        };
+        LogStreamSubscription<LogStreamEvent> subscription =
+                new LogStreamSubscription<>(subscriber, Function.identity(), 4, cancelled -> { }, Runnable::run);
+        subscriber.onSubscribe(subscription);
+
+        subscription.offer(new LogStreamEvent(List.of("line-1"), null, false, 0));
+        subscription.offer(new LogStreamEvent(List.of("line-2"), null, false, 0));
+
+        assertThat(subscriber.lines()).containsExactly("line-1");
+        assertThat(errors).hasSize(1);
+        assertThat(errors.get(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(overlapped.get()).isFalse();
+        assertThat(subscription.isCancelled()).isTrue();
+    }
+
+    @Test
+    @DisplayName("a subscriber blocked in onNext holds up neither polling nor the other subscribers")
+    void stream_blockedSubscriber_doesNotDelayOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSubscriber blocked = new RecordingSubscriber(Long.MAX_VALUE) {
+            @Override
+            public void onNext(LogStreamEvent event) {
+                super.onNext(event);
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        RecordingSubscriber live = new RecordingSubscriber(Long.MAX_VALUE);
+        service.stream(logFile, null, Function.identity()).subscribe(blocked);
+        service.stream(logFile, null, Function.identity()).subscribe(live);
+
+        append("first\n");
+        awaitLines(live, 1);
+        append("second\n");
+        awaitLines(live, 2);
+        RecordingSubscriber late = new RecordingSubscriber(Long.MAX_VALUE);
+        service.stream(logFile, null, Function.identity()).subscribe(late);
+        append("third\n");
+        awaitLines(live, 3);
+        awaitLines(late, 1);
+        release.countDown();
+        awaitLines(blocked, 3);
+
+        assertThat(live.lines()).containsExactly("first", "second", "third");
+        assertThat(late.lines()).containsExactly("third");
+        assertThat(blocked.lines()).containsExactly("first", "second", "third");
+    }
+
+    @Test
+    @DisplayName("subscribers are completed when the service stops")
+    void deactivate_completesSubscribers() {
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        service.stream(logFile, null, Function.identity()).subscribe(subscriber);
+
+        service.deactivate();
+
+        assertThat(subscriber.completed).isTrue();
+    }
+}
@@ -81,4 +81,19 @@ class TomcatLogProviderQueryApiShapeTest {
         assertThat(logFile.getFileName().toString()).isEqualTo("jahia.log");
         assertThat(tail).contains("line-1", "line-2");
     }
+
+    @Test
+    @DisplayName("tailSince accepts only an opaque cursor and a line count, and reads jahia.log")
+    void logTailSince_hasNoCallerControlledPathParameter() throws IOException {
+        List<Method> methods = Arrays.stream(TomcatLogProviderQuery.class.getMethods())
+                .filter(m -> "logTailSince".equals(m.getName()))
+                .toList();
+        assertThat(methods).hasSize(1);
+        assertThat(methods.get(0).getParameterTypes()).containsExactly(String.class, Integer.class);
+
+        Files.write(logFile, "line-1\nline-2\n".getBytes(StandardCharsets.UTF_8));
+        // A path in place of the cursor is just a malformed cursor: it restarts the tail of jahia.log
+        assertThat(new TomcatLogProviderQuery().logTailSince("../../etc/passwd", 5).getLines())
+                .containsExactly("line-1", "line-2");
+    }
 }
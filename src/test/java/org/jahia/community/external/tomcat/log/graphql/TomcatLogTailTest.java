@@ -10,6 +10,7 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -151,4 +152,44 @@ class TomcatLogTailTest {
 
         assertThat(tail).isEmpty();
     }
+
+    @Test
+    @DisplayName("tailSince returns the tail first, then only the lines appended after the cursor")
+    void logTailSince_returnsOnlyNewLines() throws IOException {
+        writeLines(1000);
+
+        TomcatLogProviderQuery.GqlTailChunk first = new TomcatLogProviderQuery().logTailSince(null, 3);
+        assertThat(first.getLines()).containsExactly("line-998", "line-999", "line-1000");
+        assertThat(first.isReset()).isTrue();
+
+        TomcatLogProviderQuery.GqlTailChunk idle = new TomcatLogProviderQuery().logTailSince(first.getCursor(), 3);
+        assertThat(idle.getLines()).isEmpty();
+        assertThat(idle.getCursor()).isEqualTo(first.getCursor());
+
+        Files.write(logFile, "line-1001\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        TomcatLogProviderQuery.GqlTailChunk next = new TomcatLogProviderQuery().logTailSince(idle.getCursor(), 3);
+        assertThat(next.getLines()).containsExactly("line-1001");
+        assertThat(next.isReset()).isFalse();
+    }
+
+    @Test
+    @DisplayName("tailSince treats a malformed cursor as a fresh start")
+    void logTailSince_malformedCursor_restartsFromTail() throws IOException {
+        writeLines(10);
+
+        TomcatLogProviderQuery.GqlTailChunk chunk = new TomcatLogProviderQuery().logTailSince("not-a-cursor", 2);
+
+        assertThat(chunk.getLines()).containsExactly("line-9", "line-10");
+        assertThat(chunk.isReset()).isTrue();
+    }
+
+    @Test
+    @DisplayName("tailSince returns an empty chunk when catalina.base is unset")
+    void logTailSince_catalinaBaseUnset_returnsEmpty() {
+        System.clearProperty(CATALINA_BASE);
+
+        TomcatLogProviderQuery.GqlTailChunk chunk = new TomcatLogProviderQuery().logTailSince(null, 10);
+
+        assertThat(chunk.getLines()).isEmpty();
+    }
 }
@@ -13,6 +13,8 @@ describe('Tomcat Log Provider', () => {
     const getLogFile: DocumentNode = require('graphql-tag/loader!../fixtures/graphql/query/getLogFile.graphql');
     // eslint-disable-next-line @typescript-eslint/no-var-requires
     const getTail: DocumentNode = require('graphql-tag/loader!../fixtures/graphql/query/getTail.graphql');
+    // eslint-disable-next-line @typescript-eslint/no-var-requires
+    const getTailSince: DocumentNode = require('graphql-tag/loader!../fixtures/graphql/query/getTailSince.graphql');
 
     before(() => {
         cy.login();
@@ -80,6 +82,22 @@ describe('Tomcat Log Provider', () => {
                     tail.forEach((line: unknown) => expect(line).to.be.a('string'));
                 });
         });
+
+        it('returns a resumable cursor from the incremental tail query', () => {
+            cy.apollo({query: getTailSince, variables: {lines: 5}})
+                .its('data.tomcatLog.tailSince')
+                .then(first => {
+                    expect(first.reset).to.eq(true);
+                    expect(first.lines.length).to.be.at.most(5);
+                    expect(first.cursor).to.be.a('string');
+                    cy.apollo({query: getTailSince, variables: {after: first.cursor, lines: 5}})
+                        .its('data.tomcatLog.tailSince')
+                        .should(next => {
+                            expect(next.lines).to.be.an('array');
+                            expect(next.cursor).to.be.a('string');
+                        });
+                });
+        });
     });
 
     // ─── Log file access ─────────────────────────────────────────────────────────